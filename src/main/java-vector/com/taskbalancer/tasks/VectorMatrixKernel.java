@@ -0,0 +1,49 @@
+package com.taskbalancer.tasks;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+import static com.taskbalancer.tasks.MatrixMultTask.BLOCK;
+
+/**
+ * Kernel SIMD de MatrixMultTask sobre la Vector API (jdk.incubator.vector).
+ * Mismo recorrido por bloques i-k-j que el kernel escalar, pero el bucle interno
+ * procesa tantos doubles como permita el ancho vectorial de la CPU (AVX2/AVX-512).
+ *
+ * Solo se compila con el perfil Maven 'vector'; MatrixMultTask lo carga por reflexión.
+ */
+final class VectorMatrixKernel implements MatrixMultTask.RowKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void multiplyRows(double[] a, double[] b, double[] c, int n, int rowStart, int rowEnd) {
+        for (int ii = rowStart; ii < rowEnd; ii += BLOCK) {
+            int iMax = Math.min(ii + BLOCK, rowEnd);
+            for (int kk = 0; kk < n; kk += BLOCK) {
+                int kMax = Math.min(kk + BLOCK, n);
+                for (int jj = 0; jj < n; jj += BLOCK) {
+                    int jMax = Math.min(jj + BLOCK, n);
+                    int jVecMax = jj + SPECIES.loopBound(jMax - jj);
+                    for (int i = ii; i < iMax; i++) {
+                        int rowC = i * n;
+                        for (int k = kk; k < kMax; k++) {
+                            double aik = a[i * n + k];
+                            DoubleVector va = DoubleVector.broadcast(SPECIES, aik);
+                            int rowB = k * n;
+                            int j = jj;
+                            for (; j < jVecMax; j += SPECIES.length()) {
+                                DoubleVector vb = DoubleVector.fromArray(SPECIES, b, rowB + j);
+                                DoubleVector vc = DoubleVector.fromArray(SPECIES, c, rowC + j);
+                                va.fma(vb, vc).intoArray(c, rowC + j);
+                            }
+                            for (; j < jMax; j++) {
+                                c[rowC + j] += aik * b[rowB + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
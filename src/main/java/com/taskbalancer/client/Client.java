@@ -3,8 +3,11 @@ package com.taskbalancer.client;
 import com.taskbalancer.common.*;
 
 import java.io.*;
+import java.math.BigInteger;
 import java.net.Socket;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -15,10 +18,16 @@ public class Client {
     
     private final String masterHost;
     private final int masterPort;
+    private final CompressionStats compressionStats;
     
     public Client(String masterHost, int masterPort) {
         this.masterHost = masterHost;
         this.masterPort = masterPort;
+        this.compressionStats = new CompressionStats();
+    }
+    
+    public CompressionStats getCompressionStats() {
+        return compressionStats;
     }
     
     public Result submitTask(Task task) {
@@ -29,6 +38,7 @@ public class Client {
             ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
             
             Message taskMessage = new Message("TASK", task);
+            PayloadCodec.advertise(taskMessage);
             out.writeObject(taskMessage);
             out.flush();
             
@@ -40,14 +50,23 @@ public class Client {
                 System.out.println("[Cliente] ACK recibido: " + ackMsg.getPayload());
             }
             
-            Object resultObj = in.readObject();
-            if (resultObj instanceof Message) {
-                Message resultMsg = (Message) resultObj;
-                
-                if ("RESULT".equals(resultMsg.getType())) {
-                    Result result = (Result) resultMsg.getPayload();
-                    System.out.println("[Cliente] Resultado recibido: " + result.getTaskId());
-                    return result;
+            try (ResultSpill.Receiver spill = new ResultSpill.Receiver()) {
+                Object resultObj;
+                while ((resultObj = in.readObject()) instanceof Message) {
+                    Message resultMsg = PayloadCodec.decode((Message) resultObj, compressionStats);
+                    
+                    if ("RESULT_FRAME".equals(resultMsg.getType())) {
+                        // Resultado grande: los frames llegan antes que el Result
+                        spill.accept((ResultFrame) resultMsg.getPayload());
+                        continue;
+                    }
+                    if ("RESULT".equals(resultMsg.getType())) {
+                        Result result = (Result) resultMsg.getPayload();
+                        result.setData(spill.resolve(result.getData()));
+                        System.out.println("[Cliente] Resultado recibido: " + result.getTaskId());
+                        return result;
+                    }
+                    break;
                 }
             }
             
@@ -68,6 +87,45 @@ public class Client {
         }
     }
     
+    /**
+     * Envía una tarea en modo streaming (parámetro 'stream') y devuelve sus trozos
+     * según llegan. Los handlers sin streaming entregan solo el Result final.
+     */
+    public ResultStream submitStreamingTask(Task task) {
+        task.getParameters().put("stream", true);
+        Socket socket = null;
+        try {
+            socket = new Socket(masterHost, masterPort);
+            
+            ObjectOutputStream out = new ObjectOutputStream(socket.getOutputStream());
+            out.flush();
+            ObjectInputStream in = new ObjectInputStream(socket.getInputStream());
+            
+            Message taskMessage = new Message("TASK", task);
+            PayloadCodec.advertise(taskMessage);
+            out.writeObject(taskMessage);
+            out.flush();
+            
+            System.out.println("[Cliente] Tarea en streaming enviada: " + task.getTaskId());
+            
+            Object ackObj = in.readObject();
+            if (ackObj instanceof Message) {
+                Message ackMsg = (Message) ackObj;
+                System.out.println("[Cliente] ACK recibido: " + ackMsg.getPayload());
+            }
+            
+            return new ResultStream(task.getTaskId(), socket, in, compressionStats);
+            
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("[Cliente] Error: " + e.getMessage());
+            try {
+                if (socket != null) socket.close();
+            } catch (IOException ignored) {
+            }
+            return ResultStream.failed(task.getTaskId(), "Error de conexión: " + e.getMessage());
+        }
+    }
+    
     public static Task createTask(String taskType, Map<String, Object> parameters) {
         String taskId = UUID.randomUUID().toString();
         return new Task(taskId, taskType, parameters);
@@ -79,6 +137,18 @@ public class Client {
         return createTask("PRIME_TEST", params);
     }
     
+    public static Task createPrimeTestTask(BigInteger number) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("number", number);
+        return createTask("PRIME_TEST", params);
+    }
+    
+    public static Task createPrimeTestBatchTask(long[] numbers) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("numbers", numbers);
+        return createTask("PRIME_TEST_BATCH", params);
+    }
+    
     public static Task createPrimeRangeTask(long start, long end) {
         Map<String, Object> params = new HashMap<>();
         params.put("start", start);
@@ -86,12 +156,25 @@ public class Client {
         return createTask("PRIME_RANGE", params);
     }
     
+    public static Task createPrimeCountTask(long limit) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("limit", limit);
+        return createTask("PRIME_COUNT", params);
+    }
+    
     public static Task createFactorizeTask(long number) {
         Map<String, Object> params = new HashMap<>();
         params.put("number", number);
         return createTask("FACTORIZE", params);
     }
     
+    public static Task createFactorizeTask(long number, boolean parallel) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("number", number);
+        params.put("parallel", parallel);
+        return createTask("FACTORIZE", params);
+    }
+    
     public static Task createHashStressTask(String input, int iterations) {
         Map<String, Object> params = new HashMap<>();
         params.put("input", input);
@@ -99,24 +182,125 @@ public class Client {
         return createTask("HASH_STRESS", params);
     }
     
+    public static Task createHashStressTask(List<String> inputs, int iterations) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("inputs", new ArrayList<>(inputs));
+        params.put("iterations", iterations);
+        return createTask("HASH_STRESS", params);
+    }
+    
     public static Task createSortRandomTask(int count) {
         Map<String, Object> params = new HashMap<>();
         params.put("count", count);
         return createTask("SORT_RANDOM", params);
     }
     
+    public static Task createSortRandomTask(int count, String algorithm) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("count", count);
+        params.put("algorithm", algorithm);
+        return createTask("SORT_RANDOM", params);
+    }
+    
+    public static Task createExternalSortTask(long count, int runSize) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("count", count);
+        params.put("algorithm", "EXTERNAL");
+        params.put("runSize", runSize);
+        return createTask("SORT_RANDOM", params);
+    }
+    
+    /**
+     * Ordena los enteros dados en el worker; viajan como adjunto binario 'data'.
+     */
+    public static Task createSortTask(int[] data, String algorithm) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("algorithm", algorithm);
+        Task task = createTask("SORT_RANDOM", params);
+        task.addAttachment("data", Attachment.ofInts(data));
+        return task;
+    }
+    
+    /**
+     * Ordena el dataset cacheado en el worker con dataHandle. Si data no es null
+     * se sube y queda cacheado para las siguientes tareas con el mismo handle.
+     */
+    public static Task createSortTask(String dataHandle, int[] data, String algorithm) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("algorithm", algorithm);
+        Task task = createTask("SORT_RANDOM", params);
+        if (data != null) {
+            task.addAttachment("data", Attachment.ofInts(data));
+        }
+        task.addDataRef("data", dataHandle);
+        return task;
+    }
+    
     public static Task createPiEstimationTask(int iterations) {
         Map<String, Object> params = new HashMap<>();
         params.put("iterations", iterations);
         return createTask("PI_ESTIMATION", params);
     }
     
+    public static Task createParallelPiEstimationTask(long iterations, Long seed, boolean counts) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("iterations", iterations);
+        params.put("parallel", true);
+        params.put("counts", counts);
+        if (seed != null) {
+            params.put("seed", seed);
+        }
+        return createTask("PI_ESTIMATION", params);
+    }
+    
+    public static Task createPiDigitsTask(int digits) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("digits", digits);
+        return createTask("PI_DIGITS", params);
+    }
+    
     public static Task createMatrixMultTask(int size) {
         Map<String, Object> params = new HashMap<>();
         params.put("size", size);
         return createTask("MATRIX_MULT", params);
     }
     
+    public static Task createMatrixMultTask(int size, String kernel) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("size", size);
+        params.put("kernel", kernel);
+        return createTask("MATRIX_MULT", params);
+    }
+    
+    /**
+     * Multiplica las matrices n×n dadas (por filas); viajan como adjuntos 'a' y 'b'.
+     */
+    public static Task createMatrixMultTask(double[] a, double[] b, int n, String kernel) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("kernel", kernel);
+        Task task = createTask("MATRIX_MULT", params);
+        task.addAttachment("a", Attachment.ofMatrix(a, n, n));
+        task.addAttachment("b", Attachment.ofMatrix(b, n, n));
+        return task;
+    }
+    
+    /**
+     * Multiplica a por la matriz b cacheada en el worker con bHandle. Si b no es null
+     * se sube y queda cacheada; las siguientes tareas pueden pasar b = null y el Master
+     * las envía al worker que la tiene.
+     */
+    public static Task createMatrixMultTask(double[] a, String bHandle, double[] b, int n, String kernel) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("kernel", kernel);
+        Task task = createTask("MATRIX_MULT", params);
+        task.addAttachment("a", Attachment.ofMatrix(a, n, n));
+        if (b != null) {
+            task.addAttachment("b", Attachment.ofMatrix(b, n, n));
+        }
+        task.addDataRef("b", bHandle);
+        return task;
+    }
+    
     public static void main(String[] args) {
         String masterHost = args.length > 0 ? args[0] : "localhost";
         int masterPort = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
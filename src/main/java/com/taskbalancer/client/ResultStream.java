@@ -0,0 +1,135 @@
+package com.taskbalancer.client;
+
+import com.taskbalancer.common.*;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.net.Socket;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Resultado de una tarea en streaming: itera los trozos (RESULT_CHUNK) a medida
+ * que llegan del Master y, al agotarse, deja disponible el Result final.
+ * Mantiene la conexión abierta hasta consumir el flujo o llamar a close().
+ */
+public class ResultStream implements Iterator<Object>, AutoCloseable {
+    
+    private final String taskId;
+    private final Socket socket;
+    private final ObjectInputStream in;
+    private final CompressionStats compressionStats;
+    
+    private final ResultSpill.Receiver spill = new ResultSpill.Receiver();
+    
+    private Object pending;
+    private Result result;
+    
+    ResultStream(String taskId, Socket socket, ObjectInputStream in, CompressionStats compressionStats) {
+        this.taskId = taskId;
+        this.socket = socket;
+        this.in = in;
+        this.compressionStats = compressionStats;
+    }
+    
+    /** Flujo vacío cuyo Result es el error dado (p. ej. fallo al conectar). */
+    static ResultStream failed(String taskId, String error) {
+        ResultStream stream = new ResultStream(taskId, null, null, null);
+        stream.result = stream.errorResult(error);
+        return stream;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (pending != null) {
+            return true;
+        }
+        if (result != null) {
+            return false;
+        }
+        
+        try {
+            Object obj;
+            while ((obj = in.readObject()) instanceof Message) {
+                Message message = PayloadCodec.decode((Message) obj, compressionStats);
+                
+                if ("RESULT_CHUNK".equals(message.getType())) {
+                    pending = ((ResultChunk) message.getPayload()).getData();
+                    return true;
+                } else if ("RESULT_FRAME".equals(message.getType())) {
+                    spill.accept((ResultFrame) message.getPayload());
+                    continue;
+                } else if ("RESULT".equals(message.getType())) {
+                    Result finalResult = (Result) message.getPayload();
+                    finalResult.setData(spill.resolve(finalResult.getData()));
+                    finish(finalResult);
+                    return false;
+                }
+                break;
+            }
+            finish(errorResult("No se recibió resultado válido"));
+            
+        } catch (IOException | ClassNotFoundException e) {
+            System.err.println("[Cliente] Error: " + e.getMessage());
+            finish(errorResult("Error de conexión: " + e.getMessage()));
+        }
+        return false;
+    }
+    
+    @Override
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Object data = pending;
+        pending = null;
+        return data;
+    }
+    
+    /**
+     * Flujo secuencial con los trozos restantes.
+     */
+    public Stream<Object> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+    }
+    
+    /**
+     * Result final de la tarea. Descarta los trozos que queden sin leer.
+     */
+    public Result getResult() {
+        while (hasNext()) {
+            next();
+        }
+        return result;
+    }
+    
+    @Override
+    public void close() {
+        if (result == null) {
+            finish(errorResult("Flujo cerrado antes de terminar"));
+        }
+    }
+    
+    private void finish(Result finalResult) {
+        result = finalResult;
+        pending = null;
+        try {
+            spill.close();
+            if (socket != null) socket.close();
+        } catch (IOException e) {
+            System.err.println("[Cliente] Error cerrando conexión: " + e.getMessage());
+        }
+    }
+    
+    private Result errorResult(String error) {
+        Result errorResult = new Result();
+        errorResult.setTaskId(taskId);
+        errorResult.setSuccess(false);
+        errorResult.setError(error);
+        return errorResult;
+    }
+}
@@ -0,0 +1,231 @@
+package com.taskbalancer.common;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Adjunto binario de una Task: un array primitivo respaldado por un ByteBuffer
+ * (little-endian) con forma opcional, p. ej. {filas, columnas} para matrices.
+ *
+ * Se serializa como tipo + forma + bytes crudos, sin boxing: el Master lo recibe
+ * en un único byte[] y lo reenvía al worker escribiendo ese mismo array.
+ * Las vistas (asIntBuffer, asDoubleBuffer...) leen los bytes sin copiarlos; toIntArray,
+ * toDoubleArray... sacan una copia. Los handlers que necesitan un array contiguo o
+ * modificarlo (los kernels de MatrixMult, la ordenación in situ de SortRandom) copian
+ * una vez: el adjunto puede estar compartido en la DataCache del worker y no debe tocarse.
+ */
+public final class Attachment implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Tipo de elemento y su tamaño en bytes. */
+    public enum Type {
+        BYTE(1), INT(4), LONG(8), DOUBLE(8);
+
+        final int bytes;
+
+        Type(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    // Se copia a byte[] en bloques de este tamaño si el buffer es directo
+    private static final int COPY_CHUNK = 64 * 1024;
+
+    private transient Type type;
+    private transient int[] shape;
+    private transient ByteBuffer buffer;
+
+    private Attachment(Type type, int[] shape, ByteBuffer buffer) {
+        this.type = type;
+        this.shape = shape;
+        this.buffer = buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public static Attachment ofInts(int[] values) {
+        ByteBuffer buffer = allocate(values.length, Type.INT);
+        buffer.asIntBuffer().put(values);
+        return new Attachment(Type.INT, new int[]{values.length}, buffer);
+    }
+
+    public static Attachment ofLongs(long[] values) {
+        ByteBuffer buffer = allocate(values.length, Type.LONG);
+        buffer.asLongBuffer().put(values);
+        return new Attachment(Type.LONG, new int[]{values.length}, buffer);
+    }
+
+    public static Attachment ofDoubles(double[] values) {
+        ByteBuffer buffer = allocate(values.length, Type.DOUBLE);
+        buffer.asDoubleBuffer().put(values);
+        return new Attachment(Type.DOUBLE, new int[]{values.length}, buffer);
+    }
+
+    /**
+     * Matriz rows×cols de doubles guardada por filas.
+     */
+    public static Attachment ofMatrix(double[] rowMajor, int rows, int cols) {
+        if ((long) rows * cols != rowMajor.length) {
+            throw new IllegalArgumentException("La matriz no es " + rows + "x" + cols + ": " + rowMajor.length + " elementos");
+        }
+        Attachment attachment = ofDoubles(rowMajor);
+        attachment.shape = new int[]{rows, cols};
+        return attachment;
+    }
+
+    /**
+     * Envuelve un buffer existente sin copiarlo (desde su posición hasta su límite).
+     */
+    public static Attachment wrap(Type type, ByteBuffer data, int... shape) {
+        ByteBuffer slice = data.slice();
+        if (slice.remaining() % type.bytes != 0) {
+            throw new IllegalArgumentException("El buffer no contiene un número entero de elementos " + type);
+        }
+        int length = slice.remaining() / type.bytes;
+        int[] dims = shape.length > 0 ? shape.clone() : new int[]{length};
+        if (elements(dims) != length) {
+            throw new IllegalArgumentException("La forma " + Arrays.toString(dims) + " no encaja con " + length + " elementos");
+        }
+        return new Attachment(type, dims, slice);
+    }
+
+    private static ByteBuffer allocate(int length, Type type) {
+        return ByteBuffer.allocate(Math.multiplyExact(length, type.bytes)).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static long elements(int[] shape) {
+        long n = 1;
+        for (int d : shape) {
+            n *= d;
+        }
+        return n;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    /** Número de elementos. */
+    public int length() {
+        return buffer.remaining() / type.bytes;
+    }
+
+    public int byteSize() {
+        return buffer.remaining();
+    }
+
+    /** Vista de solo lectura de los bytes (little-endian). */
+    public ByteBuffer asByteBuffer() {
+        return buffer.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public IntBuffer asIntBuffer() {
+        require(Type.INT);
+        return asByteBuffer().asIntBuffer();
+    }
+
+    public LongBuffer asLongBuffer() {
+        require(Type.LONG);
+        return asByteBuffer().asLongBuffer();
+    }
+
+    public DoubleBuffer asDoubleBuffer() {
+        require(Type.DOUBLE);
+        return asByteBuffer().asDoubleBuffer();
+    }
+
+    public int[] toIntArray() {
+        int[] values = new int[length()];
+        asIntBuffer().get(values);
+        return values;
+    }
+
+    public long[] toLongArray() {
+        long[] values = new long[length()];
+        asLongBuffer().get(values);
+        return values;
+    }
+
+    public double[] toDoubleArray() {
+        double[] values = new double[length()];
+        asDoubleBuffer().get(values);
+        return values;
+    }
+
+    private void require(Type expected) {
+        if (type != expected) {
+            throw new IllegalStateException("El adjunto es de tipo " + type + ", no " + expected);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Attachment{" +
+                "type=" + type +
+                ", shape=" + Arrays.toString(shape) +
+                ", bytes=" + byteSize() +
+                '}';
+    }
+
+    // --- Serialización: tipo, forma y bytes crudos ---
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeByte(type.ordinal());
+        out.writeInt(shape.length);
+        for (int d : shape) {
+            out.writeInt(d);
+        }
+
+        int size = buffer.remaining();
+        out.writeInt(size);
+        if (buffer.hasArray()) {
+            // Buffer de heap: se escribe el array de respaldo directamente
+            out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), size);
+        } else {
+            ByteBuffer source = buffer.duplicate();
+            byte[] chunk = new byte[Math.min(COPY_CHUNK, size)];
+            while (source.hasRemaining()) {
+                int n = Math.min(chunk.length, source.remaining());
+                source.get(chunk, 0, n);
+                out.write(chunk, 0, n);
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= Type.values().length) {
+            throw new IOException("Tipo de adjunto desconocido: " + ordinal);
+        }
+        type = Type.values()[ordinal];
+
+        int dims = in.readInt();
+        if (dims < 0 || dims > 8) {
+            throw new IOException("Forma de adjunto inválida: " + dims + " dimensiones");
+        }
+        shape = new int[dims];
+        for (int i = 0; i < dims; i++) {
+            shape[i] = in.readInt();
+        }
+
+        int size = in.readInt();
+        if (size < 0 || size % type.bytes != 0 || elements(shape) != size / type.bytes) {
+            throw new IOException("Adjunto corrupto: " + size + " bytes para la forma " + Arrays.toString(shape));
+        }
+        byte[] data = new byte[size];
+        in.readFully(data);
+        buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,42 @@
+package com.taskbalancer.common;
+
+import java.io.Serializable;
+
+/**
+ * Payload de un Message comprimido por PayloadCodec.
+ * Contiene el payload original serializado y comprimido con el códec indicado.
+ */
+public class CompressedPayload implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final String codec;
+    private final int originalLength;
+    private final byte[] data;
+    
+    public CompressedPayload(String codec, int originalLength, byte[] data) {
+        this.codec = codec;
+        this.originalLength = originalLength;
+        this.data = data;
+    }
+    
+    public String getCodec() {
+        return codec;
+    }
+    
+    public int getOriginalLength() {
+        return originalLength;
+    }
+    
+    public byte[] getData() {
+        return data;
+    }
+    
+    @Override
+    public String toString() {
+        return "CompressedPayload{" +
+                "codec='" + codec + '\'' +
+                ", originalLength=" + originalLength +
+                ", compressedLength=" + data.length +
+                '}';
+    }
+}
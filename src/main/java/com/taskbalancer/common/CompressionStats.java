@@ -0,0 +1,63 @@
+package com.taskbalancer.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas de compresión de una conexión o componente: bytes ahorrados
+ * frente al tiempo de CPU invertido en comprimir y descomprimir.
+ */
+public class CompressionStats {
+    
+    private final AtomicLong compressedMessages = new AtomicLong();
+    private final AtomicLong skippedMessages = new AtomicLong();
+    private final AtomicLong originalBytes = new AtomicLong();
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong compressNanos = new AtomicLong();
+    private final AtomicLong decompressNanos = new AtomicLong();
+    
+    void recordCompressed(int original, int compressed, long nanos) {
+        compressedMessages.incrementAndGet();
+        originalBytes.addAndGet(original);
+        compressedBytes.addAndGet(compressed);
+        compressNanos.addAndGet(nanos);
+    }
+    
+    void recordSkipped(long nanos) {
+        skippedMessages.incrementAndGet();
+        compressNanos.addAndGet(nanos);
+    }
+    
+    void recordDecompressed(long nanos) {
+        decompressNanos.addAndGet(nanos);
+    }
+    
+    public long getCompressedMessages() {
+        return compressedMessages.get();
+    }
+    
+    public long getSkippedMessages() {
+        return skippedMessages.get();
+    }
+    
+    public long getBytesSaved() {
+        return originalBytes.get() - compressedBytes.get();
+    }
+    
+    public long getCompressNanos() {
+        return compressNanos.get();
+    }
+    
+    public long getDecompressNanos() {
+        return decompressNanos.get();
+    }
+    
+    @Override
+    public String toString() {
+        long original = originalBytes.get();
+        double ratio = original > 0 ? 100.0 * getBytesSaved() / original : 0.0;
+        return String.format("Compresión: %d mensajes comprimidos, %d sin comprimir, %d bytes ahorrados (%.1f%%), " +
+                        "CPU %.1f ms comprimiendo, %.1f ms descomprimiendo",
+                compressedMessages.get(), skippedMessages.get(), getBytesSaved(), ratio,
+                compressNanos.get() / 1e6, decompressNanos.get() / 1e6);
+    }
+}
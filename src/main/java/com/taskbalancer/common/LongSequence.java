@@ -0,0 +1,284 @@
+package com.taskbalancer.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Secuencia inmutable de longs para resultados numéricos grandes.
+ * Se ve como una List<Long>, pero internamente guarda un long[] y se serializa
+ * con la codificación más compacta que admiten los datos:
+ * <ul>
+ *   <li>BITSET: estrictamente creciente y denso, un bit por valor del rango.</li>
+ *   <li>DELTA_VARINT: no decreciente, diferencias consecutivas en varint.</li>
+ *   <li>RAW: cualquier otro caso, 8 bytes por valor.</li>
+ * </ul>
+ * Al deserializar solo se guardan los bytes; la decodificación se hace en el
+ * primer acceso, así el Master reenvía el resultado sin llegar a expandirlo.
+ */
+public final class LongSequence extends AbstractList<Long> implements RandomAccess, Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /** Codificaciones en el cable. */
+    public enum Encoding { RAW, DELTA_VARINT, BITSET }
+
+    // Elementos que muestra toString antes de resumir
+    private static final int TO_STRING_LIMIT = 20;
+
+    private transient int size;
+    private transient volatile long[] values;
+    private transient Encoding encoding;
+    private transient long base;
+    private transient byte[] encoded;
+
+    private LongSequence(long[] values, int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Crea la secuencia sobre el array dado, sin copiarlo (no debe modificarse después).
+     */
+    public static LongSequence of(long... values) {
+        return new LongSequence(values, values.length);
+    }
+
+    /**
+     * Copia en una secuencia cualquier colección de números.
+     */
+    public static LongSequence copyOf(Collection<? extends Number> numbers) {
+        long[] values = new long[numbers.size()];
+        int i = 0;
+        for (Number n : numbers) {
+            values[i++] = n.longValue();
+        }
+        return new LongSequence(values, values.length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Long get(int index) {
+        return getLong(index);
+    }
+
+    /** Acceso sin boxing. */
+    public long getLong(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice " + index + " fuera de [0, " + size + ")");
+        }
+        return decoded()[index];
+    }
+
+    /** Copia de los valores como long[]. */
+    public long[] toLongArray() {
+        return Arrays.copyOf(decoded(), size);
+    }
+
+    /** Codificación con la que viaja (o viajará) la secuencia. */
+    public synchronized Encoding getEncoding() {
+        encode();
+        return encoding;
+    }
+
+    /** Tamaño en bytes del cuerpo codificado. */
+    public synchronized int getEncodedSize() {
+        encode();
+        return encoded.length;
+    }
+
+    @Override
+    public String toString() {
+        if (size <= TO_STRING_LIMIT) {
+            return super.toString();
+        }
+        long[] v = decoded();
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < TO_STRING_LIMIT; i++) {
+            sb.append(v[i]).append(", ");
+        }
+        return sb.append("... (").append(size).append(" valores)]").toString();
+    }
+
+    private long[] decoded() {
+        long[] v = values;
+        if (v == null) {
+            synchronized (this) {
+                v = values;
+                if (v == null) {
+                    v = decode();
+                    values = v;
+                }
+            }
+        }
+        return v;
+    }
+
+    // --- Codificación ---
+
+    private void encode() {
+        if (encoded != null) {
+            return;
+        }
+        long[] v = values;
+        if (size == 0) {
+            encoding = Encoding.RAW;
+            encoded = new byte[0];
+            return;
+        }
+
+        boolean nonDecreasing = true;
+        boolean strictlyIncreasing = true;
+        long varintBytes = 0;
+        for (int i = 1; i < size && nonDecreasing; i++) {
+            if (v[i] < v[i - 1]) {
+                nonDecreasing = false;
+            } else {
+                strictlyIncreasing &= v[i] != v[i - 1];
+                varintBytes += varintLength(v[i] - v[i - 1]);
+            }
+        }
+
+        base = v[0];
+        if (!nonDecreasing) {
+            encoding = Encoding.RAW;
+            encoded = encodeRaw(v, size);
+            return;
+        }
+
+        // Bytes del bitmap sobre [v[0], v[size-1]]; la resta puede desbordar si el rango es enorme
+        long span = v[size - 1] - v[0];
+        long bitsetBytes = span >= 0 && span < Integer.MAX_VALUE - 7L ? (span >>> 3) + 1 : Long.MAX_VALUE;
+        if (strictlyIncreasing && bitsetBytes < varintBytes) {
+            encoding = Encoding.BITSET;
+            encoded = encodeBitset(v, size, (int) bitsetBytes);
+        } else {
+            encoding = Encoding.DELTA_VARINT;
+            encoded = encodeDeltaVarint(v, size);
+        }
+    }
+
+    private static byte[] encodeRaw(long[] v, int size) {
+        byte[] out = new byte[size * Long.BYTES];
+        for (int i = 0; i < size; i++) {
+            long x = v[i];
+            for (int b = 0; b < Long.BYTES; b++) {
+                out[i * Long.BYTES + b] = (byte) (x >>> (8 * b));
+            }
+        }
+        return out;
+    }
+
+    private static byte[] encodeDeltaVarint(long[] v, int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        for (int i = 1; i < size; i++) {
+            // Sin signo: una diferencia que desborda se recupera con la suma modular
+            long delta = v[i] - v[i - 1];
+            while ((delta & ~0x7FL) != 0) {
+                out.write((int) ((delta & 0x7F) | 0x80));
+                delta >>>= 7;
+            }
+            out.write((int) delta);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeBitset(long[] v, int size, int bytes) {
+        byte[] out = new byte[bytes];
+        long first = v[0];
+        for (int i = 0; i < size; i++) {
+            long bit = v[i] - first;
+            out[(int) (bit >>> 3)] |= (byte) (1 << (bit & 7));
+        }
+        return out;
+    }
+
+    private static int varintLength(long delta) {
+        return delta == 0 ? 1 : (64 - Long.numberOfLeadingZeros(delta) + 6) / 7;
+    }
+
+    // --- Decodificación ---
+
+    private long[] decode() {
+        long[] v = new long[size];
+        if (size == 0) {
+            return v;
+        }
+        switch (encoding) {
+            case RAW:
+                for (int i = 0; i < size; i++) {
+                    long x = 0;
+                    for (int b = 0; b < Long.BYTES; b++) {
+                        x |= (encoded[i * Long.BYTES + b] & 0xFFL) << (8 * b);
+                    }
+                    v[i] = x;
+                }
+                break;
+            case DELTA_VARINT:
+                v[0] = base;
+                for (int i = 1, pos = 0; i < size; i++) {
+                    long delta = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = encoded[pos++];
+                        delta |= (b & 0x7FL) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    v[i] = v[i - 1] + delta;
+                }
+                break;
+            case BITSET:
+                for (int i = 0, byteIdx = 0; byteIdx < encoded.length; byteIdx++) {
+                    int bits = encoded[byteIdx] & 0xFF;
+                    while (bits != 0) {
+                        int low = Integer.numberOfTrailingZeros(bits);
+                        v[i++] = base + ((long) byteIdx << 3) + low;
+                        bits &= bits - 1;
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Codificación desconocida: " + encoding);
+        }
+        return v;
+    }
+
+    // --- Serialización ---
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        encode();
+        out.defaultWriteObject();
+        out.writeByte(encoding.ordinal());
+        out.writeInt(size);
+        out.writeLong(base);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int ordinal = in.readUnsignedByte();
+        if (ordinal >= Encoding.values().length) {
+            throw new IOException("Codificación desconocida: " + ordinal);
+        }
+        encoding = Encoding.values()[ordinal];
+        size = in.readInt();
+        base = in.readLong();
+        int length = in.readInt();
+        if (size < 0 || length < 0) {
+            throw new IOException("Secuencia corrupta: size=" + size + ", bytes=" + length);
+        }
+        encoded = new byte[length];
+        in.readFully(encoded);
+    }
+}
@@ -1,17 +1,25 @@
 package com.taskbalancer.common;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Mensaje genérico para la comunicación entre componentes del sistema.
- * Tipos: TASK, RESULT, WORKER_REGISTER, HEARTBEAT, ACK, ERROR
+ * Tipos: TASK, RESULT, RESULT_CHUNK, RESULT_FRAME, WORKER_REGISTER, HEARTBEAT, ACK, ERROR,
+ * DATA_EVICTED, PULL
+ * Las cabeceras opcionales sirven para negociar capacidades de la conexión.
  */
 public class Message implements Serializable {
     private static final long serialVersionUID = 1L;
     
+    /** Cabecera del ACK de registro con el modo de reparto del Master (PUSH o PULL). */
+    public static final String DISTRIBUTION = "distribution";
+    
     private String type;
     private Object payload;
     private long timestamp;
+    private Map<String, Object> headers;
     
     public Message() {
         this.timestamp = System.currentTimeMillis();
@@ -47,6 +55,25 @@ public class Message implements Serializable {
         this.timestamp = timestamp;
     }
     
+    public Object getHeader(String name) {
+        return headers != null ? headers.get(name) : null;
+    }
+    
+    public void setHeader(String name, Object value) {
+        if (headers == null) {
+            headers = new HashMap<>();
+        }
+        headers.put(name, value);
+    }
+    
+    public Map<String, Object> getHeaders() {
+        return headers;
+    }
+    
+    public void setHeaders(Map<String, Object> headers) {
+        this.headers = headers;
+    }
+    
     @Override
     public String toString() {
         return "Message{" +
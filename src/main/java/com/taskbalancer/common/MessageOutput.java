@@ -0,0 +1,47 @@
+package com.taskbalancer.common;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Salida de mensajes de una conexión, compartida por varios hilos.
+ * Serializa las escrituras con un ReentrantLock en lugar de synchronized: en JDK 21
+ * un hilo virtual que se bloquea en el socket dentro de un synchronized fija su hilo
+ * portador, y con el lock se desmonta y lo deja libre para otros hilos virtuales.
+ */
+public final class MessageOutput {
+
+    private final ObjectOutputStream out;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public MessageOutput(ObjectOutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Escribe el mensaje y vacía el stream. Con reset se olvidan los objetos ya
+     * escritos, para que ObjectOutputStream no retenga cada payload enviado.
+     */
+    public void send(Message message, boolean reset) throws IOException {
+        lock.lock();
+        try {
+            out.writeObject(message);
+            out.flush();
+            if (reset) {
+                out.reset();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
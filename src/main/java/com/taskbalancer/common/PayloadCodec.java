@@ -0,0 +1,212 @@
+package com.taskbalancer.common;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Compresión de payloads de Message negociada por conexión.
+ *
+ * Quien abre la conexión anuncia los códecs que acepta en la cabecera
+ * ACCEPT_COMPRESSION del primer mensaje (WORKER_REGISTER o TASK) y el Master
+ * confirma el elegido en la cabecera COMPRESSION del ACK. A partir de ahí cada
+ * extremo comprime los payloads que superan el umbral; descomprimir es siempre
+ * seguro porque CompressedPayload se describe a sí mismo. Los payloads cuyo tamaño
+ * se puede estimar por debajo del umbral no se llegan a serializar, y los grandes
+ * se comprimen mientras se serializan.
+ *
+ * Configuración: -Dtaskbalancer.compression=false la desactiva y
+ * -Dtaskbalancer.compression.threshold fija el umbral en bytes.
+ */
+public final class PayloadCodec {
+    
+    public static final String DEFLATE = "DEFLATE";
+    
+    public static final String ACCEPT_COMPRESSION = "acceptCompression";
+    public static final String COMPRESSION = "compression";
+    
+    public static final int DEFAULT_THRESHOLD = 16 * 1024;
+    
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("taskbalancer.compression", "true"));
+    private static final int THRESHOLD =
+            Integer.getInteger("taskbalancer.compression.threshold", DEFAULT_THRESHOLD);
+    
+    private PayloadCodec() {
+    }
+    
+    /** Indica si este proceso admite compresión. */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+    
+    /** Anuncia en el mensaje los códecs aceptados (si la compresión está activa). */
+    public static void advertise(Message message) {
+        if (ENABLED) {
+            message.setHeader(ACCEPT_COMPRESSION, DEFLATE);
+        }
+    }
+    
+    /**
+     * Elige el códec para una conexión a partir del mensaje del peer:
+     * DEFLATE si ambos lo admiten, null si no.
+     */
+    public static String negotiate(Message peerMessage) {
+        return ENABLED && DEFLATE.equals(peerMessage.getHeader(ACCEPT_COMPRESSION)) ? DEFLATE : null;
+    }
+    
+    /** Códec confirmado por el Master en su ACK, o null. */
+    public static String accepted(Message ack) {
+        return ENABLED && DEFLATE.equals(ack.getHeader(COMPRESSION)) ? DEFLATE : null;
+    }
+    
+    /**
+     * Devuelve el mensaje con el payload comprimido si supera el umbral y la
+     * compresión ahorra espacio; en otro caso devuelve el mismo mensaje.
+     */
+    public static Message encode(Message message, CompressionStats stats) throws IOException {
+        return encode(message, stats, THRESHOLD);
+    }
+    
+    static Message encode(Message message, CompressionStats stats, int threshold) throws IOException {
+        Object payload = message.getPayload();
+        if (payload == null || payload instanceof CompressedPayload) {
+            return message;
+        }
+        
+        long start = System.nanoTime();
+        // Los payloads claramente pequeños (escalares, textos, mapas cortos...) no se serializan para medirlos
+        long estimate = SerializationUtils.estimateSize(payload);
+        if (estimate >= 0 && estimate < threshold) {
+            stats.recordSkipped(System.nanoTime() - start);
+            return message;
+        }
+        
+        DeflatingSink sink = new DeflatingSink(threshold);
+        try (ObjectOutputStream oos = new ObjectOutputStream(sink)) {
+            oos.writeObject(payload);
+        }
+        byte[] packed = sink.packed();
+        if (packed == null || packed.length >= sink.rawLength) {
+            stats.recordSkipped(System.nanoTime() - start);
+            return message;
+        }
+        
+        int rawLength = (int) sink.rawLength;
+        Message compressed = new Message(message.getType(), new CompressedPayload(DEFLATE, rawLength, packed));
+        compressed.setTimestamp(message.getTimestamp());
+        compressed.setHeaders(message.getHeaders());
+        stats.recordCompressed(rawLength, packed.length, System.nanoTime() - start);
+        return compressed;
+    }
+    
+    /**
+     * Restaura el payload original si el mensaje llegó comprimido.
+     */
+    public static Message decode(Message message, CompressionStats stats) throws IOException {
+        if (!(message.getPayload() instanceof CompressedPayload)) {
+            return message;
+        }
+        
+        long start = System.nanoTime();
+        CompressedPayload compressed = (CompressedPayload) message.getPayload();
+        if (!DEFLATE.equals(compressed.getCodec())) {
+            throw new IOException("Códec de compresión no soportado: " + compressed.getCodec());
+        }
+        
+        try {
+            byte[] raw = inflate(compressed.getData(), compressed.getOriginalLength());
+            message.setPayload(SerializationUtils.deserialize(raw));
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Payload comprimido inválido: " + e.getMessage(), e);
+        }
+        stats.recordDecompressed(System.nanoTime() - start);
+        return message;
+    }
+    
+    private static byte[] inflate(byte[] data, int originalLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[originalLength];
+            int offset = 0;
+            while (offset < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, offset, originalLength - offset);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += n;
+            }
+            if (offset != originalLength) {
+                throw new IOException("Payload comprimido truncado: " + offset + "/" + originalLength);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IOException("Payload comprimido corrupto: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    /**
+     * Destino de la serialización de un payload: guarda en memoria como mucho threshold
+     * bytes y, si el payload llega al umbral, pasa a comprimirlo sobre la marcha, así
+     * nunca se tiene entera la versión sin comprimir.
+     */
+    private static final class DeflatingSink extends OutputStream {
+        private final int threshold;
+        private ByteArrayOutputStream head = new ByteArrayOutputStream();
+        private ByteArrayOutputStream compressed;
+        private Deflater deflater;
+        private DeflaterOutputStream out;
+        long rawLength;
+        
+        DeflatingSink(int threshold) {
+            this.threshold = threshold;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null && rawLength + len >= threshold) {
+                compressed = new ByteArrayOutputStream(threshold);
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                out = new DeflaterOutputStream(compressed, deflater, 8192);
+                head.writeTo(out);
+                head = null;
+            }
+            if (out != null) {
+                out.write(b, off, len);
+            } else {
+                head.write(b, off, len);
+            }
+            rawLength += len;
+        }
+        
+        /** Payload comprimido, o null si no llegó al umbral. */
+        byte[] packed() {
+            return compressed != null ? compressed.toByteArray() : null;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                try {
+                    out.finish();
+                } finally {
+                    deflater.end();
+                    out = null;
+                }
+            }
+        }
+    }
+}
@@ -4,6 +4,8 @@ import java.io.Serializable;
 
 /**
  * Representa el resultado de la ejecución de una tarea.
+ * Para datos numéricos grandes los handlers usan payloads primitivos
+ * (LongSequence, BitSet) en lugar de colecciones de objetos.
  */
 public class Result implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -0,0 +1,42 @@
+package com.taskbalancer.common;
+
+import java.io.Serializable;
+
+/**
+ * Trozo parcial del resultado de una tarea en streaming (mensaje RESULT_CHUNK).
+ * Los trozos de una tarea llegan en orden de sequence y el Result final cierra el flujo.
+ */
+public class ResultChunk implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final String taskId;
+    private final int sequence;
+    private final Object data;
+    
+    public ResultChunk(String taskId, int sequence, Object data) {
+        this.taskId = taskId;
+        this.sequence = sequence;
+        this.data = data;
+    }
+    
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public int getSequence() {
+        return sequence;
+    }
+    
+    public Object getData() {
+        return data;
+    }
+    
+    @Override
+    public String toString() {
+        return "ResultChunk{" +
+                "taskId='" + taskId + '\'' +
+                ", sequence=" + sequence +
+                ", data=" + data +
+                '}';
+    }
+}
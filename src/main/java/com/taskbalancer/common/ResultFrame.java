@@ -0,0 +1,50 @@
+package com.taskbalancer.common;
+
+import java.io.Serializable;
+
+/**
+ * Fragmento de un resultado volcado a disco (mensaje RESULT_FRAME).
+ * Lleva los bytes serializados de data en [offset, offset + data.length)
+ * y la longitud total, para que el receptor reserve el fichero de destino.
+ */
+public class ResultFrame implements Serializable {
+    private static final long serialVersionUID = 1L;
+    
+    private final String taskId;
+    private final long offset;
+    private final long totalLength;
+    private final byte[] data;
+    
+    public ResultFrame(String taskId, long offset, long totalLength, byte[] data) {
+        this.taskId = taskId;
+        this.offset = offset;
+        this.totalLength = totalLength;
+        this.data = data;
+    }
+    
+    public String getTaskId() {
+        return taskId;
+    }
+    
+    public long getOffset() {
+        return offset;
+    }
+    
+    public long getTotalLength() {
+        return totalLength;
+    }
+    
+    public byte[] getData() {
+        return data;
+    }
+    
+    @Override
+    public String toString() {
+        return "ResultFrame{" +
+                "taskId='" + taskId + '\'' +
+                ", offset=" + offset +
+                ", length=" + data.length +
+                ", totalLength=" + totalLength +
+                '}';
+    }
+}
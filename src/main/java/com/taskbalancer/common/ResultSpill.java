@@ -0,0 +1,236 @@
+package com.taskbalancer.common;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Volcado a disco de resultados grandes.
+ *
+ * El worker serializa Result.data en un fichero temporal cuando supera el
+ * umbral y lo envía en RESULT_FRAME que lee del fichero de uno en uno; el
+ * Result viaja después con un SpilledData en lugar de los datos. El Master solo
+ * reenvía cada frame al cliente, y el cliente los escribe en su propio fichero y
+ * deserializa desde él. Así ni el worker ni el Master necesitan en el heap más
+ * que un frame, sea cual sea el tamaño del resultado.
+ *
+ * Configuración: -Dtaskbalancer.spill.threshold (bytes serializados, 0 lo desactiva).
+ */
+public final class ResultSpill {
+    
+    public static final int DEFAULT_THRESHOLD = 16 << 20;
+    public static final int FRAME_SIZE = 1 << 20;
+    
+    private static final int THRESHOLD = Integer.getInteger("taskbalancer.spill.threshold", DEFAULT_THRESHOLD);
+    
+    private ResultSpill() {
+    }
+    
+    public static int getThreshold() {
+        return THRESHOLD;
+    }
+    
+    /**
+     * Si data ocupa serializada al menos threshold bytes, la serializa en un fichero
+     * temporal y devuelve el volcado; si no, devuelve null.
+     * El tamaño se estima sin serializar (SerializationUtils.estimateSize) cuando se
+     * puede; si no, se cuentan los bytes sin guardarlos, y solo hasta llegar al umbral.
+     * Los datos se escriben únicamente si de verdad se vuelcan.
+     */
+    public static Spill spillIfLarge(Object data, int threshold) throws IOException {
+        if (data == null || threshold <= 0) {
+            return null;
+        }
+        
+        long estimate = SerializationUtils.estimateSize(data);
+        boolean large = estimate >= 0 ? estimate >= threshold : reachesThreshold(data, threshold);
+        return large ? writeSpill(data) : null;
+    }
+    
+    private static boolean reachesThreshold(Object data, int threshold) throws IOException {
+        CountingOutputStream counter = new CountingOutputStream(threshold);
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(counter);
+            oos.writeObject(data);
+            oos.flush();
+            return false;
+        } catch (ThresholdReached e) {
+            return true;
+        }
+    }
+    
+    private static Spill writeSpill(Object data) throws IOException {
+        Path path = Files.createTempFile("taskbalancer-spill-", ".bin");
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024)) {
+            ObjectOutputStream oos = new ObjectOutputStream(file);
+            oos.writeObject(data);
+            oos.flush();
+        } catch (IOException | RuntimeException e) {
+            // Si falla a medio volcado, no dejar el fichero huérfano
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return new Spill(path, Files.size(path));
+    }
+    
+    /** Descriptor que sustituye a Result.data cuando los datos viajan en frames. */
+    public static class SpilledData implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final long length;
+        
+        public SpilledData(long length) {
+            this.length = length;
+        }
+        
+        public long getLength() {
+            return length;
+        }
+        
+        @Override
+        public String toString() {
+            return "SpilledData{length=" + length + '}';
+        }
+    }
+    
+    /** Resultado volcado en el worker; close() borra el fichero. */
+    public static final class Spill implements Closeable {
+        private final Path path;
+        private final long length;
+        
+        private Spill(Path path, long length) {
+            this.path = path;
+            this.length = length;
+        }
+        
+        public long getLength() {
+            return length;
+        }
+        
+        public SpilledData descriptor() {
+            return new SpilledData(length);
+        }
+        
+        /**
+         * Entrega el contenido en frames de FRAME_SIZE bytes. Cada frame se lee del
+         * canal directamente en su propio array, sin buffers intermedios.
+         */
+        public void forEachFrame(String taskId, Consumer<ResultFrame> frames) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                for (long offset = 0; offset < length; offset += FRAME_SIZE) {
+                    int size = (int) Math.min(FRAME_SIZE, length - offset);
+                    byte[] frame = new byte[size];
+                    ByteBuffer buffer = ByteBuffer.wrap(frame);
+                    long position = offset;
+                    while (buffer.hasRemaining()) {
+                        int read = channel.read(buffer, position);
+                        if (read < 0) {
+                            throw new EOFException("Volcado truncado en el byte " + position + "/" + length);
+                        }
+                        position += read;
+                    }
+                    frames.accept(new ResultFrame(taskId, offset, length, frame));
+                }
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            Files.deleteIfExists(path);
+        }
+    }
+    
+    /**
+     * Reensambla en un fichero temporal los frames de un resultado y lo
+     * deserializa al llegar el Result final.
+     */
+    public static final class Receiver implements Closeable {
+        private Path path;
+        private FileChannel channel;
+        
+        public void accept(ResultFrame frame) throws IOException {
+            if (channel == null) {
+                path = Files.createTempFile("taskbalancer-result-", ".bin");
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(frame.getData());
+            long position = frame.getOffset();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+        }
+        
+        /**
+         * Devuelve data tal cual, o los datos reales si es un SpilledData.
+         */
+        public Object resolve(Object data) throws IOException, ClassNotFoundException {
+            if (!(data instanceof SpilledData)) {
+                return data;
+            }
+            long length = ((SpilledData) data).getLength();
+            if (channel == null || channel.size() != length) {
+                throw new IOException("Resultado volcado incompleto: " +
+                        (channel == null ? 0 : channel.size()) + "/" + length + " bytes");
+            }
+            
+            channel.position(0);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel), 64 * 1024);
+            try {
+                return new ObjectInputStream(in).readObject();
+            } finally {
+                close();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+    
+    /**
+     * Cuenta los bytes escritos sin guardarlos y corta la serialización al llegar al umbral.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private final int threshold;
+        private long count;
+        
+        CountingOutputStream(int threshold) {
+            this.threshold = threshold;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            add(1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            add(len);
+        }
+        
+        private void add(int len) throws ThresholdReached {
+            count += len;
+            if (count >= threshold) {
+                throw new ThresholdReached();
+            }
+        }
+    }
+    
+    private static final class ThresholdReached extends IOException {
+        private static final long serialVersionUID = 1L;
+        
+        ThresholdReached() {
+            super("Umbral de volcado alcanzado", null);
+        }
+    }
+}
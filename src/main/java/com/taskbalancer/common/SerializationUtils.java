@@ -1,6 +1,8 @@
 package com.taskbalancer.common;
 
 import java.io.*;
+import java.util.Collection;
+import java.util.Map;
 
 /**
  * Utilidades para serialización de objetos usando ObjectOutputStream.
@@ -8,6 +10,11 @@ import java.io.*;
  */
 public class SerializationUtils {
     
+    // Cabecera, descriptor de clase y campos de un objeto (cota generosa)
+    private static final int OBJECT_OVERHEAD = 128;
+    // Colecciones y mapas con más elementos no se recorren para estimarlos
+    private static final int MAX_ESTIMATED_ENTRIES = 64;
+    
     /**
      * Serializa un objeto a bytes.
      */
@@ -20,6 +27,96 @@ public class SerializationUtils {
         }
     }
     
+    /**
+     * Tamaño aproximado (por arriba) en bytes de obj serializado, sin serializarlo,
+     * o -1 si no se puede estimar. Se estiman escalares, textos, arrays primitivos,
+     * Attachment, LongSequence, Task, Result, ResultChunk y colecciones o mapas de
+     * hasta MAX_ESTIMATED_ENTRIES elementos estimables.
+     */
+    public static long estimateSize(Object obj) {
+        if (obj == null) {
+            return 1;
+        }
+        if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character || obj instanceof Enum) {
+            return OBJECT_OVERHEAD;
+        }
+        if (obj instanceof String) {
+            // UTF modificado: hasta 3 bytes por carácter
+            return 3L * ((String) obj).length() + 8;
+        }
+        if (obj instanceof byte[]) {
+            return ((byte[]) obj).length + OBJECT_OVERHEAD;
+        }
+        if (obj instanceof int[]) {
+            return (long) ((int[]) obj).length * Integer.BYTES + OBJECT_OVERHEAD;
+        }
+        if (obj instanceof long[]) {
+            return (long) ((long[]) obj).length * Long.BYTES + OBJECT_OVERHEAD;
+        }
+        if (obj instanceof double[]) {
+            return (long) ((double[]) obj).length * Double.BYTES + OBJECT_OVERHEAD;
+        }
+        if (obj instanceof Attachment) {
+            return ((Attachment) obj).byteSize() + OBJECT_OVERHEAD;
+        }
+        if (obj instanceof LongSequence) {
+            // La codificación se guarda y la reutiliza writeObject
+            return ((LongSequence) obj).getEncodedSize() + OBJECT_OVERHEAD;
+        }
+        if (obj instanceof Result) {
+            Result result = (Result) obj;
+            return sum(OBJECT_OVERHEAD, estimateSize(result.getData()), estimateSize(result.getError()),
+                    estimateSize(result.getTaskId()), estimateSize(result.getWorkerId()));
+        }
+        if (obj instanceof ResultChunk) {
+            ResultChunk chunk = (ResultChunk) obj;
+            return sum(OBJECT_OVERHEAD, estimateSize(chunk.getData()), estimateSize(chunk.getTaskId()));
+        }
+        if (obj instanceof Task) {
+            Task task = (Task) obj;
+            return sum(OBJECT_OVERHEAD, estimateSize(task.getParameters()), estimateSize(task.getAttachments()),
+                    estimateSize(task.getDataRefs()), estimateSize(task.getTaskId()), estimateSize(task.getTaskType()));
+        }
+        if (obj instanceof Collection) {
+            Collection<?> collection = (Collection<?>) obj;
+            if (collection.size() > MAX_ESTIMATED_ENTRIES) {
+                return -1;
+            }
+            long size = OBJECT_OVERHEAD;
+            for (Object element : collection) {
+                size = sum(size, estimateSize(element));
+            }
+            return size;
+        }
+        if (obj instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) obj;
+            if (map.size() > MAX_ESTIMATED_ENTRIES) {
+                return -1;
+            }
+            long size = OBJECT_OVERHEAD;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size = sum(size, estimateSize(entry.getKey()), estimateSize(entry.getValue()));
+            }
+            return size;
+        }
+        return -1;
+    }
+    
+    // Suma de estimaciones; -1 si alguna no se conoce
+    private static long sum(long first, long... rest) {
+        if (first < 0) {
+            return -1;
+        }
+        long total = first;
+        for (long n : rest) {
+            if (n < 0) {
+                return -1;
+            }
+            total += n;
+        }
+        return total;
+    }
+    
     /**
      * Deserializa bytes a un objeto.
      */
@@ -1,12 +1,17 @@
 package com.taskbalancer.common;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
  * Representa una tarea a ser ejecutada por un Worker.
  * Contiene el tipo de tarea y los parámetros necesarios.
+ * Los datos de entrada grandes (arrays, matrices) viajan como adjuntos binarios.
+ * Un adjunto puede además asociarse a un handle de la caché de datos del worker
+ * (addDataRef): si la tarea trae el adjunto, el worker lo guarda con ese handle;
+ * si no lo trae, lo toma de su caché y el Master enruta la tarea al worker que lo tiene.
  */
 public class Task implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -15,6 +20,8 @@ public class Task implements Serializable {
     private String taskType;
     private Map<String, Object> parameters;
     private long submittedAt;
+    private Map<String, Attachment> attachments;
+    private Map<String, String> dataRefs;
     
     public Task() {
         this.parameters = new HashMap<>();
@@ -52,6 +59,41 @@ public class Task implements Serializable {
         this.parameters = parameters;
     }
     
+    /** Adjunto con ese nombre, o null. */
+    public Attachment getAttachment(String name) {
+        return attachments != null ? attachments.get(name) : null;
+    }
+    
+    public void addAttachment(String name, Attachment attachment) {
+        if (attachments == null) {
+            attachments = new HashMap<>();
+        }
+        attachments.put(name, attachment);
+    }
+    
+    public Map<String, Attachment> getAttachments() {
+        return attachments != null ? attachments : Collections.emptyMap();
+    }
+    
+    /**
+     * Asocia el adjunto name al dato cacheado handle en el worker.
+     */
+    public void addDataRef(String name, String handle) {
+        if (dataRefs == null) {
+            dataRefs = new HashMap<>();
+        }
+        dataRefs.put(name, handle);
+    }
+    
+    /** Referencias nombre de adjunto → handle de caché (vacío si no hay). */
+    public Map<String, String> getDataRefs() {
+        return dataRefs != null ? dataRefs : Collections.emptyMap();
+    }
+    
+    public void clearDataRefs() {
+        dataRefs = null;
+    }
+    
     public long getSubmittedAt() {
         return submittedAt;
     }
@@ -66,6 +108,8 @@ public class Task implements Serializable {
                 "taskId='" + taskId + '\'' +
                 ", taskType='" + taskType + '\'' +
                 ", parameters=" + parameters +
+                ", attachments=" + getAttachments() +
+                ", dataRefs=" + getDataRefs() +
                 ", submittedAt=" + submittedAt +
                 '}';
     }
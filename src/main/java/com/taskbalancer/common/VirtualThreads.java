@@ -0,0 +1,45 @@
+package com.taskbalancer.common;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Modo de hilos virtuales (JDK 21), activado con la propiedad taskbalancer.virtualThreads.
+ * En ese modo las conexiones, el envío de resultados y los pools marcados como virtuales
+ * usan hilos virtuales: un hilo bloqueado en E/S no ocupa un hilo del sistema ni su pila.
+ * El cálculo sigue en pools de hilos de plataforma acotados a los núcleos.
+ */
+public final class VirtualThreads {
+
+    public static final String PROPERTY = "taskbalancer.virtualThreads";
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROPERTY);
+    }
+
+    /**
+     * Ejecutor con un hilo por tarea: virtual, o un pool cacheado de hilos de plataforma.
+     */
+    public static ExecutorService perTaskExecutor(String prefix, boolean virtual) {
+        if (virtual) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, 0).factory());
+        }
+        return Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Arranca un hilo dedicado (p. ej. el lector de una conexión): virtual o de plataforma daemon.
+     */
+    public static Thread start(String name, Runnable task, boolean virtual) {
+        if (virtual) {
+            return Thread.ofVirtual().name(name).start(task);
+        }
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+}
@@ -1,6 +1,11 @@
 package com.taskbalancer.master;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Algoritmo de balanceo de carga para seleccionar el worker más apropiado.
@@ -44,6 +49,70 @@ public class LoadBalancer {
         }
     }
     
+    /**
+     * Afinidad de datos: entre los workers que tienen en caché más handles de
+     * dataHandles elige con la estrategia configurada; si ninguno tiene alguno,
+     * equivale a selectWorker(availableWorkers).
+     */
+    public synchronized WorkerInfo selectWorker(List<WorkerInfo> availableWorkers, Collection<String> dataHandles) {
+        if (availableWorkers == null || dataHandles == null || dataHandles.isEmpty()) {
+            return selectWorker(availableWorkers);
+        }
+        
+        List<WorkerInfo> holders = new ArrayList<>();
+        int bestScore = 0;
+        for (WorkerInfo worker : availableWorkers) {
+            int score = 0;
+            for (String handle : dataHandles) {
+                if (worker.holdsData(handle)) {
+                    score++;
+                }
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                holders.clear();
+            }
+            if (score == bestScore && score > 0) {
+                holders.add(worker);
+            }
+        }
+        
+        return selectWorker(holders.isEmpty() ? availableWorkers : holders);
+    }
+    
+    /**
+     * Plan de work stealing: cuántas tareas sin empezar pedir a cada worker con cola
+     * local para ocupar los hilos libres de los demás (en PULL esos hilos ya están pedidos,
+     * así que las tareas robadas les llegan también).
+     * A cada víctima se le pide como mucho la mitad de su cola, empezando por la más
+     * cargada, y se omiten las que tienen un robo sin responder.
+     */
+    public Map<WorkerInfo, Integer> planSteals(List<WorkerInfo> workers) {
+        int idleSlots = 0;
+        for (WorkerInfo worker : workers) {
+            if (worker.isActive()) {
+                idleSlots += worker.getIdleThreads();
+            }
+        }
+        
+        List<WorkerInfo> victims = new ArrayList<>();
+        for (WorkerInfo worker : workers) {
+            if (worker.isActive() && !worker.isStealPending() && worker.getQueuedTasks() > 0) {
+                victims.add(worker);
+            }
+        }
+        victims.sort(Comparator.comparingInt(WorkerInfo::getQueuedTasks).reversed());
+        
+        Map<WorkerInfo, Integer> plan = new LinkedHashMap<>();
+        for (WorkerInfo victim : victims) {
+            if (idleSlots <= 0) break;
+            int n = Math.min(idleSlots, (victim.getQueuedTasks() + 1) / 2);
+            plan.put(victim, n);
+            idleSlots -= n;
+        }
+        return plan;
+    }
+    
     private WorkerInfo selectLeastLoaded(List<WorkerInfo> workers) {
         WorkerInfo bestWorker = null;
         double minLoad = Double.MAX_VALUE;
@@ -8,12 +8,31 @@ import java.net.Socket;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Master/Balanceador que recibe tareas de clientes y las distribuye a workers.
+ * Reparte en modo PUSH (por defecto: asigna según su vista de la carga de cada worker)
+ * o PULL (los workers piden con PULL las tareas que pueden aceptar en cada pool y el
+ * Master solo les envía lo pedido para el pool de cada tipo). Se elige con la propiedad taskbalancer.distribution.
+ * Además hace de intermediario de work stealing: si la cola está vacía y hay workers
+ * con hilos libres, pide (STEAL n) tareas sin empezar a los que las tienen en cola local
+ * y las reencola en cabeza para que se asignen a los ociosos.
+ * Con taskbalancer.virtualThreads=true las conexiones, los asignadores (que se bloquean
+ * escribiendo en el socket del worker) y el envío de resultados a clientes usan hilos
+ * virtuales, así miles de conexiones no cuestan un hilo del sistema cada una.
+ * Los huecos de cada worker no son fijos: los actualiza con CAPACITY (y en cada
+ * heartbeat) cuando ajusta su concurrencia.
  */
 public class Master {
 
+    public static final String DISTRIBUTION_PROPERTY = "taskbalancer.distribution";
+    public static final String STEALING_PROPERTY = "taskbalancer.stealing";
+
+    /** Modo de reparto de tareas a los workers. */
+    public enum Distribution { PUSH, PULL }
+
     private final int port;
     private ServerSocket serverSocket;
 
@@ -24,26 +43,59 @@ public class Master {
     private final ExecutorService acceptorPool;
     private final ExecutorService assignerPool;
     private final ScheduledExecutorService monitorPool;
+    // Envía los resultados a los clientes fuera del hilo lector del worker (solo con hilos virtuales)
+    private final ExecutorService resultSender;
+    private final boolean virtualThreads;
 
     private final Map<String, CompletableFuture<Result>> pendingResults;
-    private final Map<String, ObjectOutputStream> clientStreams;
+    private final Map<String, ClientChannel> clientStreams;
+    private final CompressionStats compressionStats;
     private final AtomicBoolean running;
 
+    private final Distribution distribution;
+    // Se notifica cuando llega un PULL, para los asignadores que esperan peticiones
+    private final Object pullSignal = new Object();
+
+    // Tareas que esperan a que quede libre un worker con sus datos en caché, por handle
+    private final Map<String, List<Task>> affinityWaiting = new ConcurrentHashMap<>();
+
+    private final boolean stealing;
+    private final AtomicLong stealRequests = new AtomicLong();
+    private final AtomicLong stolenTasks = new AtomicLong();
+    // Tareas sacadas de la cola que un asignador aún está enviando (o esperando para enviar)
+    private final AtomicInteger assigningTasks = new AtomicInteger();
+
     private static final long WORKER_TIMEOUT_MS = 30000;
     private static final long MONITOR_INTERVAL_MS = 10000;
+    private static final long STEAL_INTERVAL_MS = 250;
+    // Espera antes de reencolar una tarea que no puede asignarse aún (pool de su tipo
+    // lleno) mientras otras sí pueden
+    private static final long REQUEUE_WAIT_MS = 50;
+    private static final int ASSIGNERS = 4;
 
     public Master(int port) {
+        this(port, Distribution.valueOf(System.getProperty(DISTRIBUTION_PROPERTY, "PUSH").toUpperCase(Locale.ROOT)));
+    }
+
+    public Master(int port, Distribution distribution) {
         this.port = port;
+        this.distribution = distribution;
+        this.stealing = Boolean.parseBoolean(System.getProperty(STEALING_PROPERTY, "true"));
         this.workerRegistry = new WorkerRegistry();
         this.taskQueue = new TaskQueue();
         this.loadBalancer = new LoadBalancer(LoadBalancer.Strategy.LEAST_LOADED);
 
-        this.acceptorPool = Executors.newCachedThreadPool();
-        this.assignerPool = Executors.newFixedThreadPool(4);
+        this.virtualThreads = VirtualThreads.isEnabled();
+        this.acceptorPool = VirtualThreads.perTaskExecutor("master-conn-", virtualThreads);
+        this.assignerPool = virtualThreads
+                ? VirtualThreads.perTaskExecutor("master-assigner-", true)
+                : Executors.newFixedThreadPool(ASSIGNERS);
         this.monitorPool = Executors.newScheduledThreadPool(1);
+        this.resultSender = virtualThreads ? VirtualThreads.perTaskExecutor("master-result-", true) : null;
 
         this.pendingResults = new ConcurrentHashMap<>();
         this.clientStreams = new ConcurrentHashMap<>();
+        this.compressionStats = new CompressionStats();
         this.running = new AtomicBoolean(false);
     }
 
@@ -52,10 +104,14 @@ public class Master {
             serverSocket = new ServerSocket(port);
             running.set(true);
 
-            System.out.println("[Master] Iniciado en puerto " + port);
+            System.out.println("[Master] Iniciado en puerto " + port + " (reparto " + distribution +
+                    (virtualThreads ? ", hilos virtuales" : "") + ")");
 
             startTaskAssigner();
             startMonitor();
+            if (stealing) {
+                startWorkStealing();
+            }
 
             acceptConnections();
 
@@ -99,7 +155,7 @@ public class Master {
                     // NO cerrar el socket, maintainWorkerConnection lo manejará
                     return;
                 } else if ("TASK".equals(type)) {
-                    handleClientTask(message, out);
+                    handleClientTask(message, new MessageOutput(out));
                     // Mantener la conexión para enviar el resultado
                     return;
                 }
@@ -126,23 +182,32 @@ public class Master {
             String workerId = (String) data.get("workerId");
             int maxTasks = ((Number) data.get("maxTasks")).intValue();
 
+            String codec = PayloadCodec.negotiate(message);
+
             WorkerInfo workerInfo = new WorkerInfo(workerId, maxTasks, out);
+            workerInfo.setCompression(codec);
+            workerInfo.setPrefetch(((Number) data.getOrDefault("prefetch", 0)).intValue());
+            @SuppressWarnings("unchecked")
+            Map<String, Integer> poolSlots = (Map<String, Integer>) data.get("poolSlots");
+            @SuppressWarnings("unchecked")
+            Map<String, String> typePools = (Map<String, String>) data.get("typePools");
+            if (poolSlots != null && typePools != null) {
+                workerInfo.setPools(poolSlots, typePools);
+            }
             workerRegistry.registerWorker(workerInfo);
 
             Message ack = new Message("ACK", "Worker registrado exitosamente");
-            synchronized (out) {
-                out.writeObject(ack);
-                out.flush();
+            ack.setHeader(Message.DISTRIBUTION, distribution.name());
+            if (codec != null) {
+                ack.setHeader(PayloadCodec.COMPRESSION, codec);
             }
+            workerInfo.getOutput().send(ack, false);
 
             // Delegar la lectura continua a un thread dedicado
             // Solo pasamos 'in' porque es el único recurso que este thread usa para leer
             // 'out' está en WorkerInfo y se usa desde otros threads para escribir
             // 'socket' se cerrará automáticamente cuando el Worker se desconecte del otro lado
-            Thread workerThread = new Thread(() -> maintainWorkerConnection(workerId, in));
-            workerThread.setName("Worker-" + workerId);
-            workerThread.setDaemon(true);
-            workerThread.start();
+            VirtualThreads.start("Worker-" + workerId, () -> maintainWorkerConnection(workerId, in), virtualThreads);
 
         } catch (Exception e) {
             System.err.println("[Master] Error registrando worker: " + e.getMessage());
@@ -165,12 +230,32 @@ public class Master {
             while (true) {
                 Object obj = in.readObject();
                 if (obj instanceof Message) {
-                    Message message = (Message) obj;
+                    Message message = PayloadCodec.decode((Message) obj, compressionStats);
 
                     if ("HEARTBEAT".equals(message.getType())) {
                         handleHeartbeat(message);
                     } else if ("RESULT".equals(message.getType())) {
                         handleResult(message);
+                    } else if ("RESULT_CHUNK".equals(message.getType())) {
+                        ResultChunk chunk = (ResultChunk) message.getPayload();
+                        forwardToClient(chunk.getTaskId(), message);
+                    } else if ("RESULT_FRAME".equals(message.getType())) {
+                        ResultFrame frame = (ResultFrame) message.getPayload();
+                        forwardToClient(frame.getTaskId(), message);
+                    } else if ("STOLEN".equals(message.getType())) {
+                        handleStolen(workerId, message);
+                    } else if ("PULL".equals(message.getType())) {
+                        handlePull(workerId, message);
+                    } else if ("CAPACITY".equals(message.getType())) {
+                        @SuppressWarnings("unchecked")
+                        Map<String, Object> capacity = (Map<String, Object>) message.getPayload();
+                        applyCapacity(workerRegistry.getWorker(workerId), capacity);
+                    } else if ("DATA_EVICTED".equals(message.getType())) {
+                        WorkerInfo worker = workerRegistry.getWorker(workerId);
+                        if (worker != null) {
+                            worker.removeCachedData((String) message.getPayload());
+                            releaseOrphanedTasks();
+                        }
                     }
                 }
             }
@@ -187,6 +272,7 @@ public class Master {
             
             // Desregistrar el worker del registry
             workerRegistry.unregisterWorker(workerId);
+            releaseOrphanedTasks();
             
             // Solo cerrar el input stream (este thread es el único que lo usa)
             // El 'out' (en WorkerInfo) y el 'socket' NO se cierran aquí explícitamente porque:
@@ -213,11 +299,85 @@ public class Master {
 
             workerRegistry.updateWorkerHeartbeat(workerId, currentTasks);
 
+            @SuppressWarnings("unchecked")
+            Map<String, Integer> poolTasks = (Map<String, Integer>) data.get("poolTasks");
+            WorkerInfo worker = workerRegistry.getWorker(workerId);
+            if (poolTasks != null && worker != null) {
+                worker.setPoolTasks(poolTasks);
+            }
+            applyCapacity(worker, data);
+            releaseParkedTasks(worker);
+
         } catch (Exception e) {
             System.err.println("[Master] Error procesando heartbeat: " + e.getMessage());
         }
     }
 
+    // Huecos que el worker anuncia ahora (cambian si ajusta su concurrencia en marcha)
+    private void applyCapacity(WorkerInfo worker, Map<String, Object> data) {
+        @SuppressWarnings("unchecked")
+        Map<String, Integer> poolSlots = (Map<String, Integer>) data.get("poolSlots");
+        Object maxTasks = data.get("maxTasks");
+        if (worker == null || poolSlots == null || maxTasks == null) {
+            return;
+        }
+        int before = worker.getMaxTasks();
+        worker.setCapacity(((Number) maxTasks).intValue(), poolSlots);
+        if (before != worker.getMaxTasks()) {
+            System.out.println("[Master] Capacidad de " + worker.getWorkerId() + ": " +
+                    before + " -> " + worker.getMaxTasks() + " huecos " + poolSlots);
+        }
+    }
+
+    private void handlePull(String workerId, Message message) {
+        WorkerInfo worker = workerRegistry.getWorker(workerId);
+        if (worker == null) {
+            return;
+        }
+        // Un número son peticiones para el pool "default"; un mapa, peticiones por pool
+        Object payload = message.getPayload();
+        if (payload instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Integer> credits = (Map<String, Integer>) payload;
+            worker.addPullCredits(credits);
+        } else {
+            worker.addPullCredits(((Number) payload).intValue());
+        }
+        releaseParkedTasks(worker);
+        synchronized (pullSignal) {
+            pullSignal.notifyAll();
+        }
+    }
+
+    // Tareas sin empezar que cede un worker tras un STEAL: vuelven a la cabeza de la cola
+    private void handleStolen(String workerId, Message message) {
+        @SuppressWarnings("unchecked")
+        List<Task> tasks = (List<Task>) message.getPayload();
+
+        WorkerInfo worker = workerRegistry.getWorker(workerId);
+        if (worker != null) {
+            for (Task task : tasks) {
+                worker.taskFinished(task.getTaskId());
+            }
+            worker.endSteal();
+            releaseParkedTasks(worker);
+        }
+
+        if (!tasks.isEmpty()) {
+            stolenTasks.addAndGet(tasks.size());
+            System.out.println("[Master] " + tasks.size() + " tareas robadas a " + workerId);
+        }
+        // En orden inverso para que en cabeza queden en su orden de llegada
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            try {
+                taskQueue.requeueFirst(tasks.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
     private void handleResult(Message message) {
         try {
             Result result = (Result) message.getPayload();
@@ -225,6 +385,14 @@ public class Master {
             System.out.println("[Master] Resultado recibido: " + result.getTaskId() +
                     " de " + result.getWorkerId());
 
+            // Liberar el hueco ya, sin esperar al siguiente heartbeat, para que el
+            // worker reciba otra tarea en cuanto termina una
+            WorkerInfo worker = result.getWorkerId() != null ? workerRegistry.getWorker(result.getWorkerId()) : null;
+            if (worker != null) {
+                worker.taskFinished(result.getTaskId());
+                releaseParkedTasks(worker);
+            }
+
             CompletableFuture<Result> future = pendingResults.remove(result.getTaskId());
             if (future != null) {
                 future.complete(result);
@@ -235,15 +403,34 @@ public class Master {
         }
     }
 
-    private void handleClientTask(Message message, ObjectOutputStream clientOut) {
+    // Reenvía un trozo (RESULT_CHUNK) o frame (RESULT_FRAME) al cliente sin acumularlo;
+    // el reset libera las referencias que ObjectOutputStream guarda de cada objeto escrito
+    private void forwardToClient(String taskId, Message message) {
+        try {
+            ClientChannel channel = clientStreams.get(taskId);
+            if (channel == null) {
+                System.err.println("[Master] " + message.getType() + " sin cliente: " + taskId);
+                return;
+            }
+
+            Message forward = encodeFor(channel.codec, new Message(message.getType(), message.getPayload()));
+            channel.out.send(forward, true);
+
+        } catch (Exception e) {
+            System.err.println("[Master] Error reenviando trozo de resultado: " + e.getMessage());
+        }
+    }
+
+    private void handleClientTask(Message message, MessageOutput clientOut) {
         try {
             Task task = (Task) message.getPayload();
+            String codec = PayloadCodec.negotiate(message);
 
             System.out.println("[Master] Tarea recibida de cliente: " + task.getTaskId());
 
             CompletableFuture<Result> resultFuture = new CompletableFuture<>();
             pendingResults.put(task.getTaskId(), resultFuture);
-            clientStreams.put(task.getTaskId(), clientOut);
+            clientStreams.put(task.getTaskId(), new ClientChannel(clientOut, codec));
             
             try {
                 taskQueue.enqueue(task);
@@ -254,25 +441,24 @@ public class Master {
             }
             
             Message ack = new Message("ACK", "Tarea recibida: " + task.getTaskId());
-            synchronized (clientOut) {
-                clientOut.writeObject(ack);
-                clientOut.flush();
+            if (codec != null) {
+                ack.setHeader(PayloadCodec.COMPRESSION, codec);
             }
+            clientOut.send(ack, false);
 
+            // Sin hilos virtuales se envía en el hilo que completa el resultado (el lector del worker)
+            Executor sender = resultSender != null ? resultSender : Runnable::run;
             resultFuture.orTimeout(60, TimeUnit.SECONDS)
-                    .thenAccept(result -> {
+                    .thenAcceptAsync(result -> {
                         try {
-                            Message resultMsg = new Message("RESULT", result);
-                            synchronized (clientOut) {
-                                clientOut.writeObject(resultMsg);
-                                clientOut.flush();
-                            }
+                            Message resultMsg = encodeFor(codec, new Message("RESULT", result));
+                            clientOut.send(resultMsg, false);
                             clientStreams.remove(task.getTaskId());
                         } catch (IOException e) {
                             System.err.println("[Master] Error enviando resultado: " +
                                     e.getMessage());
                         }
-                    })
+                    }, sender)
                     .exceptionally(ex -> {
                         try {
                             Result errorResult = new Result();
@@ -281,10 +467,7 @@ public class Master {
                             errorResult.setError("Timeout o error: " + ex.getMessage());
 
                             Message errorMsg = new Message("RESULT", errorResult);
-                            synchronized (clientOut) {
-                                clientOut.writeObject(errorMsg);
-                                clientOut.flush();
-                            }
+                            clientOut.send(errorMsg, false);
                             clientStreams.remove(task.getTaskId());
                         } catch (IOException e) {
                             System.err.println("[Master] Error enviando error: " +
@@ -298,10 +481,7 @@ public class Master {
 
             try {
                 Message errorMsg = new Message("ERROR", e.getMessage());
-                synchronized (clientOut) {
-                    clientOut.writeObject(errorMsg);
-                    clientOut.flush();
-                }
+                clientOut.send(errorMsg, false);
             } catch (IOException ex) {
                 System.err.println("[Master] Error enviando mensaje de error: " +
                         ex.getMessage());
@@ -309,15 +489,25 @@ public class Master {
         }
     }
 
+    // Comprime el mensaje si la conexión negoció un códec
+    private Message encodeFor(String codec, Message message) throws IOException {
+        return codec != null ? PayloadCodec.encode(message, compressionStats) : message;
+    }
+
     private void startTaskAssigner() {
-        for (int i = 0; i < 4; i++) {
+        for (int i = 0; i < ASSIGNERS; i++) {
             assignerPool.submit(() -> {
                 while (running.get()) {
                     try {
                         Task task = taskQueue.dequeue(1, TimeUnit.SECONDS);
 
                         if (task != null) {
-                            assignTaskToWorker(task);
+                            assigningTasks.incrementAndGet();
+                            try {
+                                assignTaskToWorker(task);
+                            } finally {
+                                assigningTasks.decrementAndGet();
+                            }
                         }
 
                     } catch (InterruptedException e) {
@@ -332,9 +522,56 @@ public class Master {
     private void assignTaskToWorker(Task task) {
         int retries = 0;
         int maxRetries = 5;
+        Set<String> cachedOnly = cachedOnlyHandles(task);
 
         while (retries < maxRetries) {
-            List<WorkerInfo> available = workerRegistry.getAvailableWorkers();
+            List<WorkerInfo> available = distribution == Distribution.PULL
+                    ? workerRegistry.getPullingWorkers(task.getTaskType())
+                    : workerRegistry.getAvailableWorkers(task.getTaskType());
+
+            // El pool de este tipo está lleno en todos los workers pero otros pools tienen
+            // hueco: reencolar para no bloquear un asignador delante de las tareas baratas
+            if (available.isEmpty() && distribution == Distribution.PUSH
+                    && !workerRegistry.getAvailableWorkers().isEmpty()) {
+                try {
+                    Thread.sleep(REQUEUE_WAIT_MS);
+                    taskQueue.enqueue(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+
+            // Nadie ha pedido trabajo para el pool de este tipo pero sí para otros:
+            // reencolar tras esperar un PULL, para que los asignadores sirvan esas peticiones
+            if (available.isEmpty() && distribution == Distribution.PULL
+                    && !workerRegistry.getPullingWorkers().isEmpty()) {
+                try {
+                    synchronized (pullSignal) {
+                        pullSignal.wait(REQUEUE_WAIT_MS);
+                    }
+                    taskQueue.enqueue(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return;
+            }
+
+            // En PULL no se reintenta: la tarea espera a que algún worker pida trabajo
+            if (available.isEmpty() && distribution == Distribution.PULL) {
+                try {
+                    synchronized (pullSignal) {
+                        pullSignal.wait(MONITOR_INTERVAL_MS);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (!running.get()) {
+                    return;
+                }
+                continue;
+            }
 
             if (available.isEmpty()) {
                 System.out.println("[Master] No hay workers disponibles, esperando...");
@@ -348,26 +585,50 @@ public class Master {
                 }
             }
 
-            WorkerInfo selectedWorker = loadBalancer.selectWorker(available);
+            WorkerInfo selectedWorker = loadBalancer.selectWorker(available, task.getDataRefs().values());
+
+            // Solo un worker ocupado tiene los datos que la tarea no trae: aparcarla hasta
+            // que quede libre, en lugar de mandarla a uno que no los tiene
+            if (selectedWorker != null && !holdsAll(selectedWorker, cachedOnly) && hasActiveHolder(cachedOnly)) {
+                parkForData(task, cachedOnly.iterator().next());
+                return;
+            }
+
+            // Otro asignador puede haber consumido la última petición de este worker
+            if (selectedWorker != null && distribution == Distribution.PULL && !selectedWorker.tryTakePullCredit(task.getTaskType())) {
+                continue;
+            }
 
             if (selectedWorker != null) {
                 System.out.println("[Master] Asignando tarea " + task.getTaskId() +
                         " a " + selectedWorker.getWorkerId());
 
-                try {
-                    Message taskMessage = new Message("TASK", task);
-                    synchronized (selectedWorker.getOutputStream()) {
-                        selectedWorker.getOutputStream().writeObject(taskMessage);
-                        selectedWorker.getOutputStream().flush();
-                        selectedWorker.getOutputStream().reset();
+                // El worker guarda en caché los datos referenciados que le llegan. Se apunta
+                // antes de enviar para que una tarea posterior que los referencie no se
+                // enrute a otro worker mientras esta va por el cable
+                List<String> newHandles = new ArrayList<>();
+                for (String handle : task.getDataRefs().values()) {
+                    if (!selectedWorker.holdsData(handle)) {
+                        newHandles.add(handle);
                     }
-                    selectedWorker.incrementTasks();
+                }
+                selectedWorker.addCachedData(newHandles);
+
+                try {
+                    Message taskMessage = encodeFor(selectedWorker.getCompression(),
+                            new Message("TASK", task));
+                    selectedWorker.getOutput().send(taskMessage, true);
+                    selectedWorker.taskAssigned(task.getTaskId(), task.getTaskType());
 
                     return;
                 } catch (IOException e) {
                     System.err.println("[Master] Error enviando tarea a worker: " +
                             e.getMessage());
+                    for (String handle : newHandles) {
+                        selectedWorker.removeCachedData(handle);
+                    }
                     workerRegistry.unregisterWorker(selectedWorker.getWorkerId());
+                    releaseOrphanedTasks();
                 }
             }
 
@@ -378,6 +639,133 @@ public class Master {
                 " intentos: " + task.getTaskId());
     }
 
+    // Handles que la tarea referencia sin llevar el adjunto: solo los puede ejecutar quien los tenga
+    private static Set<String> cachedOnlyHandles(Task task) {
+        Set<String> handles = new HashSet<>();
+        for (Map.Entry<String, String> ref : task.getDataRefs().entrySet()) {
+            if (task.getAttachment(ref.getKey()) == null) {
+                handles.add(ref.getValue());
+            }
+        }
+        return handles;
+    }
+
+    private static boolean holdsAll(WorkerInfo worker, Set<String> handles) {
+        for (String handle : handles) {
+            if (!worker.holdsData(handle)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void parkForData(Task task, String handle) {
+        affinityWaiting.compute(handle, (h, waiting) -> {
+            List<Task> list = waiting != null ? waiting : new ArrayList<>();
+            list.add(task);
+            return list;
+        });
+        System.out.println("[Master] Tarea " + task.getTaskId() + " esperando al worker con el dato " + handle);
+
+        // El hueco puede haberse liberado mientras se decidía aparcarla
+        for (WorkerInfo worker : workerRegistry.getAllWorkers()) {
+            if (worker.holdsData(handle) && canTakeNow(worker, task)) {
+                requeueParked(handle);
+                return;
+            }
+        }
+    }
+
+    private boolean canTakeNow(WorkerInfo worker, Task task) {
+        return distribution == Distribution.PULL
+                ? worker.isActive() && worker.getPullCredits(task.getTaskType()) > 0
+                : worker.isAvailableFor(task.getTaskType());
+    }
+
+    // El worker ha liberado huecos: las tareas aparcadas por datos que tiene vuelven a la cabeza de la cola
+    private void releaseParkedTasks(WorkerInfo worker) {
+        if (worker == null || affinityWaiting.isEmpty()) {
+            return;
+        }
+        for (String handle : affinityWaiting.keySet()) {
+            if (worker.holdsData(handle)) {
+                requeueParked(handle);
+            }
+        }
+    }
+
+    // Datos que ya no tiene ningún worker activo: sus tareas no tienen a quién esperar
+    private void releaseOrphanedTasks() {
+        for (String handle : affinityWaiting.keySet()) {
+            if (!hasActiveHolder(Set.of(handle))) {
+                requeueParked(handle);
+            }
+        }
+    }
+
+    private void requeueParked(String handle) {
+        List<Task> released = new ArrayList<>();
+        affinityWaiting.computeIfPresent(handle, (h, waiting) -> {
+            released.addAll(waiting);
+            return null;
+        });
+        // En orden inverso para que en cabeza queden en su orden de llegada
+        for (int i = released.size() - 1; i >= 0; i--) {
+            try {
+                taskQueue.requeueFirst(released.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private boolean hasActiveHolder(Set<String> handles) {
+        if (handles.isEmpty()) {
+            return false;
+        }
+        for (WorkerInfo worker : workerRegistry.getAllWorkers()) {
+            if (worker.isActive() && holdsAll(worker, handles)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void startWorkStealing() {
+        monitorPool.scheduleWithFixedDelay(() -> {
+            try {
+                brokerSteals();
+            } catch (Exception e) {
+                System.err.println("[Master] Error en work stealing: " + e.getMessage());
+            }
+        }, STEAL_INTERVAL_MS, STEAL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Solo se roba cuando no hay nada en cola ni en manos de un asignador: si lo hay,
+    // los ociosos ya recibirán tareas
+    private void brokerSteals() {
+        if (!taskQueue.isEmpty() || assigningTasks.get() > 0) {
+            return;
+        }
+
+        Map<WorkerInfo, Integer> plan = loadBalancer.planSteals(workerRegistry.getAllWorkers());
+        for (Map.Entry<WorkerInfo, Integer> entry : plan.entrySet()) {
+            WorkerInfo victim = entry.getKey();
+            if (!victim.tryBeginSteal()) {
+                continue;
+            }
+            try {
+                victim.getOutput().send(new Message("STEAL", entry.getValue()), false);
+                stealRequests.incrementAndGet();
+            } catch (IOException e) {
+                victim.endSteal();
+                System.err.println("[Master] Error pidiendo tareas a " + victim.getWorkerId() + ": " +
+                        e.getMessage());
+            }
+        }
+    }
+
     private void startMonitor() {
         monitorPool.scheduleAtFixedRate(() -> {
             try {
@@ -395,6 +783,9 @@ public class Master {
                 "/" + workerRegistry.getWorkerCount());
         System.out.println("Tareas en cola: " + taskQueue.size());
         System.out.println("Resultados pendientes: " + pendingResults.size());
+        System.out.println(compressionStats);
+        System.out.println("Work stealing: " + stolenTasks.get() + " tareas robadas en " +
+                stealRequests.get() + " peticiones");
         workerRegistry.printStatus();
     }
 
@@ -407,7 +798,13 @@ public class Master {
 
         monitorPool.shutdown();
         assignerPool.shutdown();
+        synchronized (pullSignal) {
+            pullSignal.notifyAll();
+        }
         acceptorPool.shutdown();
+        if (resultSender != null) {
+            resultSender.shutdown();
+        }
 
         try {
             if (serverSocket != null && !serverSocket.isClosed()) {
@@ -420,6 +817,17 @@ public class Master {
         System.out.println("[Master] Apagado completado");
     }
 
+    /** Conexión de un cliente con su códec negociado. */
+    private static final class ClientChannel {
+        final MessageOutput out;
+        final String codec;
+
+        ClientChannel(MessageOutput out, String codec) {
+            this.out = out;
+            this.codec = codec;
+        }
+    }
+
     public static void main(String[] args) {
         int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
 
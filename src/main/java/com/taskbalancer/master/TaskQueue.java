@@ -2,8 +2,8 @@ package com.taskbalancer.master;
 
 import com.taskbalancer.common.Task;
 
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -12,14 +12,14 @@ import java.util.concurrent.TimeUnit;
  */
 public class TaskQueue {
     
-    private final BlockingQueue<Task> queue;
+    private final BlockingDeque<Task> queue;
     
     public TaskQueue() {
-        this.queue = new LinkedBlockingQueue<>();
+        this.queue = new LinkedBlockingDeque<>();
     }
     
     public TaskQueue(int capacity) {
-        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.queue = new LinkedBlockingDeque<>(capacity);
     }
     
     public void enqueue(Task task) throws InterruptedException {
@@ -28,6 +28,16 @@ public class TaskQueue {
                         " (Cola: " + queue.size() + ")");
     }
     
+    /**
+     * Devuelve una tarea a la cabeza de la cola (p. ej. robada de un worker ocupado),
+     * por delante de las que llegaron después que ella.
+     */
+    public void requeueFirst(Task task) throws InterruptedException {
+        queue.putFirst(task);
+        System.out.println("[Master] Tarea reencolada: " + task.getTaskId() + 
+                        " (Cola: " + queue.size() + ")");
+    }
+    
     public Task dequeue() throws InterruptedException {
         return queue.take();
     }
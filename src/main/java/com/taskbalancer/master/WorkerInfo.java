@@ -1,26 +1,53 @@
 package com.taskbalancer.master;
 
+import com.taskbalancer.common.MessageOutput;
+
 import java.io.ObjectOutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Información sobre un worker registrado.
+ * Si el worker declara pools por clase de coste, lleva también los huecos y la
+ * ocupación de cada pool, y solo está disponible para un tipo si su pool tiene hueco.
+ * En modo PULL las peticiones también se cuentan por pool: una tarea solo se envía si
+ * el worker ha pedido trabajo para el pool de su tipo.
  */
 public class WorkerInfo {
+    // Pool de los tipos que el worker no asigna a ninguno (WorkerPools.DEFAULT_POOL)
+    private static final String DEFAULT_POOL = "default";
+
     private final String workerId;
-    private final int maxTasks;
+    private volatile int maxTasks;
     private final AtomicInteger currentTasks;
-    private final ObjectOutputStream out;
+    private final MessageOutput out;
     private long lastHeartbeat;
     private boolean active;
+    private volatile String compression;
+    private final Set<String> cachedData;
+    // Tareas pedidas con PULL por pool
+    private final Map<String, AtomicInteger> pullCredits = new ConcurrentHashMap<>();
+    private final AtomicBoolean stealPending;
+    private volatile int prefetch;
+    private volatile Map<String, Integer> poolSlots = Map.of();
+    private volatile Map<String, String> typePools = Map.of();
+    private final Map<String, AtomicInteger> poolTasks = new ConcurrentHashMap<>();
+    // Tarea asignada → pool, para liberar el hueco correcto al llegar su resultado
+    private final Map<String, String> assignedPools = new ConcurrentHashMap<>();
     
     public WorkerInfo(String workerId, int maxTasks, ObjectOutputStream out) {
         this.workerId = workerId;
         this.maxTasks = maxTasks;
-        this.out = out;
+        this.out = new MessageOutput(out);
         this.currentTasks = new AtomicInteger(0);
         this.lastHeartbeat = System.currentTimeMillis();
         this.active = true;
+        this.cachedData = ConcurrentHashMap.newKeySet();
+        this.stealPending = new AtomicBoolean(false);
     }
     
     public String getWorkerId() {
@@ -44,13 +71,171 @@ public class WorkerInfo {
     }
     
     public void decrementTasks() {
-        this.currentTasks.decrementAndGet();
+        // Un heartbeat puede haber puesto ya el contador al día: no bajar de cero
+        this.currentTasks.updateAndGet(n -> Math.max(0, n - 1));
+    }
+    
+    /** Huecos de maxTasks que son cola local del worker y no hilos de ejecución. */
+    public int getPrefetch() {
+        return prefetch;
+    }
+    
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+    
+    /** Hilos de ejecución del worker. */
+    public int getThreads() {
+        return Math.max(1, maxTasks - prefetch);
+    }
+    
+    /** Estimación de tareas esperando en la cola local del worker (sin empezar). */
+    public int getQueuedTasks() {
+        return Math.max(0, currentTasks.get() - getThreads());
+    }
+    
+    /** Estimación de hilos del worker sin tarea. */
+    public int getIdleThreads() {
+        return Math.max(0, getThreads() - currentTasks.get());
+    }
+    
+    /** Marca un STEAL en curso; false si ya había uno sin responder. */
+    public boolean tryBeginSteal() {
+        return stealPending.compareAndSet(false, true);
+    }
+    
+    public void endSteal() {
+        stealPending.set(false);
+    }
+    
+    public boolean isStealPending() {
+        return stealPending.get();
+    }
+    
+    /** Huecos por pool y asignación tipo → pool declarados por el worker al registrarse. */
+    public void setPools(Map<String, Integer> poolSlots, Map<String, String> typePools) {
+        this.poolSlots = Map.copyOf(poolSlots);
+        this.typePools = Map.copyOf(typePools);
+    }
+    
+    /** Huecos actuales del worker, en total y por pool (cambian con su límite adaptativo). */
+    public void setCapacity(int maxTasks, Map<String, Integer> poolSlots) {
+        this.maxTasks = maxTasks;
+        this.poolSlots = Map.copyOf(poolSlots);
+    }
+    
+    public String poolFor(String taskType) {
+        return typePools.getOrDefault(taskType, DEFAULT_POOL);
+    }
+    
+    public int getPoolTasks(String pool) {
+        AtomicInteger n = poolTasks.get(pool);
+        return n != null ? n.get() : 0;
+    }
+    
+    /** Ocupación por pool informada en el heartbeat. */
+    public void setPoolTasks(Map<String, Integer> counts) {
+        counts.forEach((pool, n) -> poolTasks.computeIfAbsent(pool, p -> new AtomicInteger()).set(n));
+    }
+    
+    /** Disponible para ese tipo: activo, con hueco total y con hueco en el pool del tipo. */
+    public boolean isAvailableFor(String taskType) {
+        if (!isAvailable()) {
+            return false;
+        }
+        String pool = poolFor(taskType);
+        Integer slots = poolSlots.get(pool);
+        return slots == null || getPoolTasks(pool) < slots;
     }
     
-    public ObjectOutputStream getOutputStream() {
+    public void taskAssigned(String taskId, String taskType) {
+        String pool = poolFor(taskType);
+        assignedPools.put(taskId, pool);
+        poolTasks.computeIfAbsent(pool, p -> new AtomicInteger()).incrementAndGet();
+        incrementTasks();
+    }
+    
+    /** Libera el hueco de una tarea asignada (resultado recibido o tarea robada). */
+    public void taskFinished(String taskId) {
+        String pool = assignedPools.remove(taskId);
+        AtomicInteger n = pool != null ? poolTasks.get(pool) : null;
+        if (n != null) {
+            n.updateAndGet(v -> Math.max(0, v - 1));
+        }
+        decrementTasks();
+    }
+    
+    /** Salida hacia el worker, compartida por asignadores y monitor. */
+    public MessageOutput getOutput() {
         return out;
     }
     
+    /** Códec de compresión negociado con el worker, o null. */
+    public String getCompression() {
+        return compression;
+    }
+    
+    public void setCompression(String compression) {
+        this.compression = compression;
+    }
+    
+    /** Indica si el worker tiene en su DataCache el dato con ese handle. */
+    public boolean holdsData(String handle) {
+        return cachedData.contains(handle);
+    }
+    
+    public void addCachedData(Collection<String> handles) {
+        cachedData.addAll(handles);
+    }
+    
+    public void removeCachedData(String handle) {
+        cachedData.remove(handle);
+    }
+    
+    public int getCachedDataCount() {
+        return cachedData.size();
+    }
+    
+    /** Suma tareas pedidas con PULL para el pool "default" (workers sin pools). */
+    public void addPullCredits(int n) {
+        pullCredits.computeIfAbsent(DEFAULT_POOL, p -> new AtomicInteger()).addAndGet(n);
+    }
+    
+    /** Suma las tareas pedidas por el worker con PULL, por pool (modo de reparto PULL). */
+    public void addPullCredits(Map<String, Integer> credits) {
+        credits.forEach((pool, n) -> pullCredits.computeIfAbsent(pool, p -> new AtomicInteger()).addAndGet(n));
+    }
+    
+    /** Consume una tarea pedida para el pool "default"; false si no hay peticiones pendientes. */
+    public boolean tryTakePullCredit() {
+        return takeCredit(DEFAULT_POOL);
+    }
+    
+    /** Consume una tarea pedida para el pool de ese tipo; false si no hay peticiones pendientes. */
+    public boolean tryTakePullCredit(String taskType) {
+        return takeCredit(poolFor(taskType));
+    }
+    
+    private boolean takeCredit(String pool) {
+        AtomicInteger credits = pullCredits.get(pool);
+        return credits != null && credits.getAndUpdate(n -> n > 0 ? n - 1 : n) > 0;
+    }
+    
+    /** Tareas pedidas pendientes de enviar, sumando todos los pools. */
+    public int getPullCredits() {
+        int total = 0;
+        for (AtomicInteger n : pullCredits.values()) {
+            total += n.get();
+        }
+        return total;
+    }
+    
+    /** Tareas pedidas pendientes de enviar para el pool de ese tipo. */
+    public int getPullCredits(String taskType) {
+        AtomicInteger n = pullCredits.get(poolFor(taskType));
+        return n != null ? n.get() : 0;
+    }
+    
     public long getLastHeartbeat() {
         return lastHeartbeat;
     }
@@ -82,6 +267,9 @@ public class WorkerInfo {
                 ", currentTasks=" + currentTasks.get() +
                 ", maxTasks=" + maxTasks +
                 ", active=" + active +
+                ", cachedData=" + cachedData.size() +
+                ", pullCredits=" + getPullCredits() +
+                (poolSlots.isEmpty() ? "" : ", pools=" + poolTasks + "/" + poolSlots) +
                 ", loadRatio=" + String.format("%.2f", getLoadRatio()) +
                 '}';
     }
@@ -44,6 +44,39 @@ public class WorkerRegistry {
         return available;
     }
     
+    /** Workers con hueco en el pool que ejecuta ese tipo de tarea. */
+    public List<WorkerInfo> getAvailableWorkers(String taskType) {
+        List<WorkerInfo> available = new ArrayList<>();
+        for (WorkerInfo worker : workers.values()) {
+            if (worker.isAvailableFor(taskType)) {
+                available.add(worker);
+            }
+        }
+        return available;
+    }
+    
+    /** Workers activos con tareas pedidas por PULL pendientes de enviar. */
+    public List<WorkerInfo> getPullingWorkers() {
+        List<WorkerInfo> pulling = new ArrayList<>();
+        for (WorkerInfo worker : workers.values()) {
+            if (worker.isActive() && worker.getPullCredits() > 0) {
+                pulling.add(worker);
+            }
+        }
+        return pulling;
+    }
+    
+    /** Workers activos que han pedido con PULL tareas para el pool de ese tipo. */
+    public List<WorkerInfo> getPullingWorkers(String taskType) {
+        List<WorkerInfo> pulling = new ArrayList<>();
+        for (WorkerInfo worker : workers.values()) {
+            if (worker.isActive() && worker.getPullCredits(taskType) > 0) {
+                pulling.add(worker);
+            }
+        }
+        return pulling;
+    }
+    
     public int getWorkerCount() {
         return workers.size();
     }
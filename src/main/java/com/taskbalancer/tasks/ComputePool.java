@@ -0,0 +1,146 @@
+package com.taskbalancer.tasks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * ForkJoinPool compartido por los handlers de un worker para paralelizar dentro de una tarea.
+ * El TaskExecutor marca cada tarea al empezar y al terminar, y el paralelismo del pool se
+ * reparte entre las tareas en curso: con el nodo ocioso una tarea puede usar todos los
+ * núcleos y con tantas tareas como núcleos (o más) cada handler calcula en serie.
+ */
+public final class ComputePool {
+
+    private static final ComputePool COMMON = new ComputePool(ForkJoinPool.commonPool());
+
+    private final ForkJoinPool pool;
+    private final AtomicInteger runningTasks = new AtomicInteger();
+
+    public ComputePool(int parallelism) {
+        this(new ForkJoinPool(parallelism));
+    }
+
+    private ComputePool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Pool sobre el ForkJoinPool común, para los handlers creados fuera de un TaskExecutor.
+     */
+    public static ComputePool common() {
+        return COMMON;
+    }
+
+    public void taskStarted() {
+        runningTasks.incrementAndGet();
+    }
+
+    public void taskFinished() {
+        runningTasks.decrementAndGet();
+    }
+
+    public int getRunningTasks() {
+        return runningTasks.get();
+    }
+
+    public int getPoolParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Núcleos que le tocan a cada tarea en curso (al menos 1).
+     */
+    public int parallelism() {
+        return Math.max(1, pool.getParallelism() / Math.max(1, runningTasks.get()));
+    }
+
+    /** Indica si merece la pena repartir trabajo: hay núcleos libres para esta tarea. */
+    public boolean shouldFork() {
+        return parallelism() > 1;
+    }
+
+    public <T> T invoke(ForkJoinTask<T> task) {
+        return pool.invoke(task);
+    }
+
+    /**
+     * Ejecuta work dentro del pool, de modo que los parallel streams que lance usen
+     * sus hilos y no los del ForkJoinPool común.
+     */
+    public <T> T call(Supplier<T> work) {
+        return pool.invoke(ForkJoinTask.adapt(work::get));
+    }
+
+    /** Como call, para trabajo sin resultado. */
+    public void run(Runnable work) {
+        pool.invoke(ForkJoinTask.adapt(work));
+    }
+
+    /**
+     * Ejecuta los trabajos en paralelo y devuelve sus resultados en el mismo orden.
+     * Si alguno falla se relanza su excepción original (no la copia que hace el pool).
+     */
+    public <T> List<T> invokeAll(List<? extends Callable<T>> work) {
+        Throwable[] failure = new Throwable[1];
+        List<Callable<T>> guarded = new ArrayList<>(work.size());
+        for (Callable<T> job : work) {
+            guarded.add(() -> {
+                try {
+                    return job.call();
+                } catch (Throwable t) {
+                    synchronized (failure) {
+                        if (failure[0] == null) {
+                            failure[0] = t;
+                        }
+                    }
+                    return null;
+                }
+            });
+        }
+
+        List<T> results = new ArrayList<>(work.size());
+        for (Future<T> future : pool.invokeAll(guarded)) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando al pool de cálculo", e);
+            }
+        }
+
+        synchronized (failure) {
+            if (failure[0] instanceof RuntimeException) {
+                throw (RuntimeException) failure[0];
+            }
+            if (failure[0] instanceof Error) {
+                throw (Error) failure[0];
+            }
+            if (failure[0] != null) {
+                throw new IllegalStateException(failure[0]);
+            }
+        }
+        return results;
+    }
+
+    public void shutdown() {
+        if (this != COMMON) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ComputePool{paralelismo=" + pool.getParallelism() +
+                ", tareas=" + runningTasks.get() +
+                '}';
+    }
+}
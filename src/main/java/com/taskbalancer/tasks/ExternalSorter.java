@@ -0,0 +1,284 @@
+package com.taskbalancer.tasks;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Ordenación externa de enteros con heap acotado.
+ * Genera los datos por runs de runSize elementos, ordena cada run en memoria
+ * (radix sort si las claves están acotadas; si no, Arrays.parallelSort en el
+ * ComputePool cuando tiene núcleos libres y Arrays.sort cuando no),
+ * la vuelca a un fichero temporal mapeado en memoria y al final hace una mezcla
+ * k-way de todas las runs hacia un fichero de salida, también mapeado por ventanas.
+ * El heap usado es un buffer de runSize ints (dos con radix sort: el auxiliar se reserva
+ * una vez y se reutiliza en todas las runs) más k bloques de lectura, sea cual sea count.
+ */
+final class ExternalSorter {
+
+    /** Productor de los datos de cada run. */
+    interface Source {
+        void fill(int[] buffer, int length);
+    }
+
+    /** Resumen de una ordenación externa. */
+    static final class Summary {
+        final long count;
+        final int runs;
+        final int[] head;
+        final long elapsedNanos;
+
+        Summary(long count, int runs, int[] head, long elapsedNanos) {
+            this.count = count;
+            this.runs = runs;
+            this.head = head;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        long bytes() {
+            return count * Integer.BYTES;
+        }
+
+        double throughputMBs() {
+            return elapsedNanos > 0 ? (bytes() / 1e6) / (elapsedNanos / 1e9) : 0.0;
+        }
+    }
+
+    // Ints copiados de golpe desde/hacia los ficheros mapeados
+    private static final int BLOCK = 1 << 14;
+
+    // Ints por ventana mapeada del fichero de salida (64 MB)
+    private static final int OUTPUT_WINDOW = 1 << 24;
+
+    private static final int HEAD_SIZE = 10;
+
+    private final int runSize;
+    private final int bound;
+    private final ComputePool compute;
+
+    /**
+     * bound > 0 indica que todas las claves están en [0, bound); 0 admite cualquier int.
+     */
+    ExternalSorter(int runSize, int bound) {
+        this(runSize, bound, ComputePool.common());
+    }
+
+    ExternalSorter(int runSize, int bound, ComputePool compute) {
+        if (runSize <= 0 || runSize > Integer.MAX_VALUE / Integer.BYTES) {
+            throw new IllegalArgumentException("'runSize' fuera de rango: " + runSize);
+        }
+        this.runSize = runSize;
+        this.bound = bound;
+        this.compute = compute;
+    }
+
+    /**
+     * Ordena count enteros producidos por source. Si output no es null recibe la
+     * secuencia ordenada completa (para verificación).
+     */
+    Summary sort(long count, Source source, IntConsumer output) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("'count' no puede ser negativo");
+        }
+
+        long start = System.nanoTime();
+        Path workDir = Files.createTempDirectory("taskbalancer-sort-");
+        int runCount = (int) ((count + runSize - 1) / runSize);
+        Path[] runFiles = new Path[runCount];
+
+        try {
+            int[] buffer = new int[(int) Math.min(runSize, count)];
+            int[] scratch = bound > 0 ? new int[buffer.length] : null;
+            long remaining = count;
+            for (int r = 0; r < runCount; r++) {
+                int length = (int) Math.min(runSize, remaining);
+                source.fill(buffer, length);
+                if (bound > 0) {
+                    SortRandomTask.radixSort(buffer, length, bound, scratch);
+                } else if (compute.shouldFork()) {
+                    int[] run = buffer;
+                    compute.run(() -> Arrays.parallelSort(run, 0, length));
+                } else {
+                    Arrays.sort(buffer, 0, length);
+                }
+                runFiles[r] = workDir.resolve("run-" + r + ".bin");
+                writeRun(runFiles[r], buffer, length);
+                remaining -= length;
+            }
+            buffer = null; // la mezcla solo necesita O(k) de heap
+            scratch = null;
+
+            int[] head = merge(runFiles, count, workDir.resolve("sorted.bin"), output);
+            return new Summary(count, runCount, head, System.nanoTime() - start);
+
+        } finally {
+            deleteQuietly(workDir);
+        }
+    }
+
+    private static void writeRun(Path file, int[] buffer, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (length > 0) {
+                channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) length * Integer.BYTES)
+                        .asIntBuffer()
+                        .put(buffer, 0, length);
+            }
+        }
+    }
+
+    /**
+     * Mezcla k-way con un min-heap de índices de run ordenado por su valor actual.
+     * Cada run se lee por bloques desde su mapeo y la cabeza se cachea en keys,
+     * así el heap compara ints de un array en lugar de leer del buffer mapeado.
+     */
+    private static int[] merge(Path[] runFiles, long count, Path outputFile, IntConsumer output) throws IOException {
+        int k = runFiles.length;
+        RunCursor[] runs = new RunCursor[k];
+        int[] keys = new int[k];
+        int[] heap = new int[k];
+        int size = 0;
+        for (int r = 0; r < k; r++) {
+            try (FileChannel channel = FileChannel.open(runFiles[r], StandardOpenOption.READ)) {
+                // El mapeo sigue siendo válido después de cerrar el canal
+                runs[r] = new RunCursor(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).asIntBuffer());
+            }
+            if (runs[r].advance()) {
+                keys[r] = runs[r].current;
+                heap[size++] = r;
+            }
+        }
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(heap, size, i, keys);
+        }
+
+        int[] head = new int[(int) Math.min(HEAD_SIZE, count)];
+        try (OutputWindows out = new OutputWindows(outputFile, count)) {
+            for (long written = 0; size > 0; written++) {
+                int r = heap[0];
+                int value = keys[r];
+                if (written < head.length) {
+                    head[(int) written] = value;
+                }
+                out.write(value);
+                if (output != null) {
+                    output.accept(value);
+                }
+
+                if (runs[r].advance()) {
+                    keys[r] = runs[r].current;
+                } else {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, size, 0, keys);
+            }
+        }
+        return head;
+    }
+
+    private static void siftDown(int[] heap, int size, int i, int[] keys) {
+        if (size == 0) return;
+        int r = heap[i];
+        int key = keys[r];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            if (keys[heap[child]] >= key) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+
+    /** Lector de una run que copia del mapeo por bloques de BLOCK ints. */
+    private static final class RunCursor {
+        private final IntBuffer source;
+        private final int[] block;
+        private int position;
+        private int limit;
+        int current;
+
+        RunCursor(IntBuffer source) {
+            this.source = source;
+            this.block = new int[Math.min(BLOCK, source.remaining())];
+        }
+
+        boolean advance() {
+            if (position == limit) {
+                limit = Math.min(block.length, source.remaining());
+                if (limit == 0) {
+                    return false;
+                }
+                source.get(block, 0, limit);
+                position = 0;
+            }
+            current = block[position++];
+            return true;
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(f -> f.toFile().delete());
+        } catch (IOException ignored) {
+        }
+        dir.toFile().delete();
+    }
+
+    /** Fichero de salida escrito por ventanas mapeadas de OUTPUT_WINDOW ints. */
+    private static final class OutputWindows implements AutoCloseable {
+        private final FileChannel channel;
+        private final long total;
+        private final int[] block = new int[BLOCK];
+        private int pending;
+        private long mapped;
+        private IntBuffer window;
+
+        OutputWindows(Path file, long total) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.total = total;
+        }
+
+        void write(int value) throws IOException {
+            block[pending++] = value;
+            if (pending == BLOCK) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            int offset = 0;
+            while (offset < pending) {
+                if (window == null || !window.hasRemaining()) {
+                    int length = (int) Math.min(OUTPUT_WINDOW, total - mapped);
+                    window = channel.map(FileChannel.MapMode.READ_WRITE,
+                            mapped * Integer.BYTES, (long) length * Integer.BYTES).asIntBuffer();
+                    mapped += length;
+                }
+                int n = Math.min(pending - offset, window.remaining());
+                window.put(block, offset, n);
+                offset += n;
+            }
+            pending = 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.taskbalancer.tasks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+/**
+ * Motor de factorización para números de 64 bits.
+ * Combina división por prueba con una tabla de primos pequeños, Miller-Rabin
+ * (PrimeUtils) y Pollard-rho con detección de ciclos de Brent sobre aritmética de Montgomery.
+ */
+public final class FactorizationEngine {
+
+    /** Límite recomendado de la división por prueba antes de pasar a Pollard-rho. */
+    public static final int TRIAL_LIMIT = 1 << 12;
+
+    private static final int[] DEFAULT_TRIAL_PRIMES = new PrimeTable(TRIAL_LIMIT).primesUpTo(TRIAL_LIMIT);
+
+    // Pasos entre cálculos de gcd en Brent (acumulando el producto de diferencias)
+    private static final int BRENT_BATCH = 128;
+
+    private FactorizationEngine() {
+    }
+
+    /**
+     * Devuelve los factores primos de n en orden ascendente (con repetición).
+     * Si parallel es true, cada búsqueda de divisor lanza varios intentos de rho
+     * con constantes distintas sobre los núcleos disponibles y se queda con el primero.
+     */
+    public static List<Long> factorize(long n, boolean parallel) {
+        return factorize(n, parallel, DEFAULT_TRIAL_PRIMES, ComputePool.common());
+    }
+
+    /**
+     * Igual que factorize(n, parallel), pero la división por prueba usa los primos
+     * dados (ascendentes, normalmente de la PrimeTable del worker).
+     */
+    public static List<Long> factorize(long n, boolean parallel, int[] trialPrimes) {
+        return factorize(n, parallel, trialPrimes, ComputePool.common());
+    }
+
+    /**
+     * Igual que factorize(n, parallel, trialPrimes), con los intentos paralelos de rho
+     * en el ComputePool dado: tantos como núcleos le tocan a la tarea, y en serie si
+     * no le toca más que uno.
+     */
+    public static List<Long> factorize(long n, boolean parallel, int[] trialPrimes, ComputePool compute) {
+        if (n < 1) {
+            throw new IllegalArgumentException("El número debe ser positivo: " + n);
+        }
+
+        List<Long> factors = new ArrayList<>();
+        n = trialDivide(n, trialPrimes, factors);
+
+        if (n > 1) {
+            factorizeLarge(n, parallel ? compute : null, factors);
+        }
+
+        Collections.sort(factors);
+        return factors;
+    }
+
+    private static long trialDivide(long n, int[] trialPrimes, List<Long> factors) {
+        for (int p : trialPrimes) {
+            // Sin divisores <= sqrt(n): el resto es primo
+            if ((long) p * p > n) {
+                if (n > 1) {
+                    factors.add(n);
+                }
+                return 1;
+            }
+            while (n % p == 0) {
+                factors.add((long) p);
+                n /= p;
+            }
+        }
+        return n;
+    }
+
+    // compute es null si no se piden intentos en paralelo
+    private static void factorizeLarge(long n, ComputePool compute, List<Long> factors) {
+        if (n == 1) return;
+
+        if (PrimeUtils.isPrime(n)) {
+            factors.add(n);
+            return;
+        }
+
+        long d = compute != null && compute.shouldFork() ? findDivisorParallel(n, compute) : findDivisor(n);
+        factorizeLarge(d, compute, factors);
+        factorizeLarge(n / d, compute, factors);
+    }
+
+    private static long findDivisor(long n) {
+        AtomicBoolean never = new AtomicBoolean(false);
+        for (long c = 1; ; c++) {
+            long d = brent(n, c, never);
+            if (d > 1 && d < n) {
+                return d;
+            }
+        }
+    }
+
+    private static long findDivisorParallel(long n, ComputePool compute) {
+        int attempts = compute.parallelism();
+        AtomicBoolean found = new AtomicBoolean(false);
+
+        for (long base = 1; ; base += attempts) {
+            long first = base;
+            OptionalLong divisor = compute.call(() -> LongStream.range(first, first + attempts)
+                    .parallel()
+                    .map(c -> {
+                        long d = brent(n, c, found);
+                        if (d > 1 && d < n) {
+                            found.set(true);
+                        }
+                        return d;
+                    })
+                    .filter(d -> d > 1 && d < n)
+                    .findAny());
+
+            if (divisor.isPresent()) {
+                return divisor.getAsLong();
+            }
+        }
+    }
+
+    /**
+     * Pollard-rho con el ciclo de Brent para f(x) = x^2 + c (mod n), n impar compuesto.
+     * Devuelve un divisor de n (puede ser n si el intento falla) o 0 si se canceló.
+     */
+    static long brent(long n, long c, AtomicBoolean cancelled) {
+        Montgomery mont = new Montgomery(n);
+        long cm = mont.toMontgomery(c);
+
+        long y = mont.toMontgomery(2);
+        long x = y;
+        long ys = y;
+        long q = mont.one();
+        long g = 1;
+
+        for (long r = 1; g == 1; r <<= 1) {
+            x = y;
+            for (long i = 0; i < r; i++) {
+                y = mont.addMod(mont.multiply(y, y), cm);
+            }
+
+            for (long k = 0; k < r && g == 1; k += BRENT_BATCH) {
+                if (cancelled.get()) {
+                    return 0;
+                }
+                ys = y;
+                long limit = Math.min(BRENT_BATCH, r - k);
+                for (long i = 0; i < limit; i++) {
+                    y = mont.addMod(mont.multiply(y, y), cm);
+                    q = mont.multiply(q, mont.subMod(x, y));
+                }
+                g = gcd(q, n);
+            }
+        }
+
+        // El lote colapsó a n: retroceder paso a paso desde el último punto guardado
+        if (g == n) {
+            do {
+                ys = mont.addMod(mont.multiply(ys, ys), cm);
+                g = gcd(mont.subMod(x, ys), n);
+            } while (g == 1);
+        }
+
+        return g;
+    }
+
+    static long gcd(long a, long b) {
+        if (a == 0) return b;
+        if (b == 0) return a;
+
+        int shift = Long.numberOfTrailingZeros(a | b);
+        a >>>= Long.numberOfTrailingZeros(a);
+        while (b != 0) {
+            b >>>= Long.numberOfTrailingZeros(b);
+            if (a > b) {
+                long t = a;
+                a = b;
+                b = t;
+            }
+            b -= a;
+        }
+        return a << shift;
+    }
+}
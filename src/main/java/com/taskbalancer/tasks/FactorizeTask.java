@@ -1,15 +1,36 @@
 package com.taskbalancer.tasks;
 
+import com.taskbalancer.common.LongSequence;
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Tarea que calcula los factores primos de un número.
+ * Delega en FactorizationEngine (rueda + Miller-Rabin + Pollard-rho/Brent).
+ * Parámetro opcional 'parallel' para repartir los intentos de rho entre los núcleos
+ * libres del ComputePool del worker.
+ * Los primos de la división por prueba salen de la PrimeTable del worker.
  */
 public class FactorizeTask implements TaskHandler {
     
+    private final PrimeTable primeTable;
+    private final ComputePool compute;
+    private volatile int[] trialPrimes;
+    
+    public FactorizeTask() {
+        this(new PrimeTable());
+    }
+    
+    public FactorizeTask(PrimeTable primeTable) {
+        this(primeTable, ComputePool.common());
+    }
+    
+    public FactorizeTask(PrimeTable primeTable, ComputePool compute) {
+        this.primeTable = primeTable;
+        this.compute = compute;
+    }
+    
     @Override
     public String getTaskType() {
         return "FACTORIZE";
@@ -29,10 +50,11 @@ public class FactorizeTask implements TaskHandler {
             }
             
             long number = ((Number) numberObj).longValue();
-            List<Long> factors = factorize(number);
+            boolean parallel = Boolean.TRUE.equals(task.getParameters().get("parallel"));
+            List<Long> factors = FactorizationEngine.factorize(number, parallel, getTrialPrimes(), compute);
             
             result.setSuccess(true);
-            result.setData(factors);
+            result.setData(LongSequence.copyOf(factors));
             
         } catch (Exception e) {
             result.setSuccess(false);
@@ -43,26 +65,13 @@ public class FactorizeTask implements TaskHandler {
         return result;
     }
     
-    private List<Long> factorize(long n) {
-        List<Long> factors = new ArrayList<>();
-        
-        while (n % 2 == 0) {
-            factors.add(2L);
-            n /= 2;
+    private int[] getTrialPrimes() {
+        int[] primes = trialPrimes;
+        if (primes == null) {
+            int limit = Math.min(FactorizationEngine.TRIAL_LIMIT, primeTable.getMaxBound());
+            primes = primeTable.primesUpTo(limit);
+            trialPrimes = primes;
         }
-        
-        for (long i = 3; i * i <= n; i += 2) {
-            while (n % i == 0) {
-                factors.add(i);
-                n /= i;
-            }
-        }
-        
-        if (n > 2) {
-            factors.add(n);
-        }
-        
-        return factors;
+        return primes;
     }
 }
-
@@ -2,66 +2,131 @@ package com.taskbalancer.tasks;
 
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Tarea que aplica funciones hash repetidamente a una cadena.
+ * El bucle no reserva memoria por iteración: el digest y su codificación hex se
+ * escriben en buffers reutilizados que se realimentan al mismo MessageDigest.
+ * Con el parámetro 'inputs' (lista de cadenas) hashea entradas independientes
+ * en paralelo en el ComputePool del worker (en serie si está saturado) y devuelve
+ * la lista de resultados en el mismo orden.
  */
 public class HashStressTask implements TaskHandler {
-    
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final ComputePool compute;
+
+    public HashStressTask() {
+        this(ComputePool.common());
+    }
+
+    public HashStressTask(ComputePool compute) {
+        this.compute = compute;
+    }
+
     @Override
     public String getTaskType() {
         return "HASH_STRESS";
     }
-    
+
     @Override
     public Result execute(Task task) {
         long startTime = System.currentTimeMillis();
         Result result = new Result();
         result.setTaskId(task.getTaskId());
-        
+
         try {
             String input = (String) task.getParameters().get("input");
+            Object inputsObj = task.getParameters().get("inputs");
             Object iterObj = task.getParameters().get("iterations");
-            
-            if (input == null || iterObj == null) {
+
+            if ((input == null && inputsObj == null) || iterObj == null) {
                 throw new IllegalArgumentException("Parámetros 'input' e 'iterations' requeridos");
             }
-            
+
             int iterations = ((Number) iterObj).intValue();
-            String hashed = applyHashMultipleTimes(input, iterations);
-            
+
+            if (inputsObj != null) {
+                result.setData(hashAll(compute, (List<?>) inputsObj, iterations));
+            } else {
+                result.setData(applyHashMultipleTimes(input, iterations));
+            }
+
             result.setSuccess(true);
-            result.setData(hashed);
-            
+
         } catch (Exception e) {
             result.setSuccess(false);
             result.setError(e.getMessage());
         }
-        
+
         result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
         return result;
     }
-    
-    private String applyHashMultipleTimes(String input, int iterations) throws NoSuchAlgorithmException {
-        MessageDigest md = MessageDigest.getInstance("SHA-256");
-        String current = input;
-        
-        for (int i = 0; i < iterations; i++) {
-            byte[] hash = md.digest(current.getBytes());
-            current = bytesToHex(hash);
+
+    /**
+     * Hashea cada entrada de forma independiente; reparte las entradas en el pool
+     * solo si hay núcleos libres para esta tarea.
+     */
+    static List<String> hashAll(ComputePool compute, List<?> inputs, int iterations) {
+        if (inputs.size() > 1 && compute.shouldFork()) {
+            return compute.call(() -> hash(inputs.parallelStream(), iterations));
         }
-        
-        return current;
+        return hash(inputs.stream(), iterations);
     }
-    
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b));
+
+    private static List<String> hash(Stream<?> inputs, int iterations) {
+        return inputs.map(in -> applyHashMultipleTimes(String.valueOf(in), iterations))
+                .collect(Collectors.toList());
+    }
+
+    static String applyHashMultipleTimes(String input, int iterations) {
+        if (iterations <= 0) {
+            return input;
         }
-        return sb.toString();
+
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " no disponible", e);
+        }
+
+        byte[] digest = new byte[DIGEST_LENGTH];
+        byte[] hex = new byte[DIGEST_LENGTH * 2];
+
+        try {
+            md.update(input.getBytes(StandardCharsets.UTF_8));
+            md.digest(digest, 0, DIGEST_LENGTH);
+            toHex(digest, hex);
+
+            for (int i = 1; i < iterations; i++) {
+                md.update(hex, 0, hex.length);
+                md.digest(digest, 0, DIGEST_LENGTH);
+                toHex(digest, hex);
+            }
+        } catch (DigestException e) {
+            throw new IllegalStateException("Error calculando " + ALGORITHM, e);
+        }
+
+        return new String(hex, StandardCharsets.US_ASCII);
     }
-}
 
+    private static void toHex(byte[] bytes, byte[] out) {
+        for (int i = 0, j = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xff;
+            out[j++] = HEX[v >>> 4];
+            out[j++] = HEX[v & 0x0f];
+        }
+    }
+}
@@ -1,84 +1,292 @@
 package com.taskbalancer.tasks;
 
+import com.taskbalancer.common.Attachment;
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
+import java.util.Arrays;
+import java.util.Locale;
 import java.util.Random;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Tarea que multiplica dos matrices cuadradas de tamaño NxN.
+ * Las matrices se guardan en arrays double[] contiguos por filas. El kernel se elige
+ * con el parámetro opcional 'kernel' (NAIVE, BLOCKED, PARALLEL; por defecto PARALLEL)
+ * y el resumen incluye el rendimiento obtenido en GFLOP/s.
+ *
+ * Si el build incluye VectorMatrixKernel (perfil Maven 'vector') y la JVM arranca con
+ * --add-modules jdk.incubator.vector, BLOCKED y PARALLEL usan el kernel SIMD;
+ * en otro caso se usa el kernel escalar. El parámetro 'simd'=false fuerza el escalar.
+ *
+ * Con los adjuntos 'a' y 'b' (matrices DOUBLE n×n) multiplica esos datos en lugar de
+ * generarlos (no hace falta 'size') y devuelve el producto como adjunto n×n.
+ *
+ * PARALLEL reparte las filas en el ComputePool del worker solo si hay núcleos libres;
+ * con el nodo saturado multiplica en serie con el mismo kernel por bloques.
  */
 public class MatrixMultTask implements TaskHandler {
-    
+
+    public enum Kernel {
+        NAIVE,      // bucle i-j-k clásico, acceso por columnas a B
+        BLOCKED,    // orden i-k-j con bloques que caben en caché
+        PARALLEL    // BLOCKED repartido por bloques de filas en el ComputePool
+    }
+
+    // Límite del kernel NAIVE (coste cúbico sin optimizar) y de los kernels optimizados
+    private static final int MAX_NAIVE_SIZE = 500;
+    private static final int MAX_SIZE = 4096;
+
+    // Lado del bloque: 3 bloques de 64x64 doubles (96 KB) caben en L2
+    static final int BLOCK = 64;
+
+    /**
+     * Kernel por bloques que calcula las filas [rowStart, rowEnd) de C += A·B.
+     */
+    interface RowKernel {
+        void multiplyRows(double[] a, double[] b, double[] c, int n, int rowStart, int rowEnd);
+    }
+
+    private static final RowKernel SCALAR_KERNEL = MatrixMultTask::multiplyBlocked;
+    private static final RowKernel VECTOR_KERNEL = loadVectorKernel();
+
+    private final ComputePool compute;
+
+    public MatrixMultTask() {
+        this(ComputePool.common());
+    }
+
+    public MatrixMultTask(ComputePool compute) {
+        this.compute = compute;
+    }
+
     @Override
     public String getTaskType() {
         return "MATRIX_MULT";
     }
-    
+
     @Override
     public Result execute(Task task) {
         long startTime = System.currentTimeMillis();
         Result result = new Result();
         result.setTaskId(task.getTaskId());
-        
+
         try {
-            Object sizeObj = task.getParameters().get("size");
-            
+            Attachment attachedA = task.getAttachment("a");
+            Attachment attachedB = task.getAttachment("b");
+            boolean attached = attachedA != null || attachedB != null;
+            Object sizeObj = attached ? Integer.valueOf(squareSize(attachedA, attachedB)) : task.getParameters().get("size");
+
             if (sizeObj == null) {
                 throw new IllegalArgumentException("Parámetro 'size' requerido");
             }
-            
+
             int size = ((Number) sizeObj).intValue();
-            
-            if (size > 500) {
-                throw new IllegalArgumentException("Tamaño máximo: 500");
+            Kernel kernel = parseKernel(task.getParameters().get("kernel"));
+            boolean simd = !Boolean.FALSE.equals(task.getParameters().get("simd")) && isVectorAvailable();
+
+            int maxSize = kernel == Kernel.NAIVE ? MAX_NAIVE_SIZE : MAX_SIZE;
+            if (size < 1 || size > maxSize) {
+                throw new IllegalArgumentException("Tamaño máximo: " + maxSize + " (kernel " + kernel + ")");
             }
-            
-            double[][] matrixA = generateRandomMatrix(size);
-            double[][] matrixB = generateRandomMatrix(size);
-            double[][] resultMatrix = multiplyMatrices(matrixA, matrixB);
-            
-            String summary = String.format("Matriz %dx%d multiplicada. Elemento [0][0] = %.2f", 
-                                        size, size, resultMatrix[0][0]);
-            
+
+            // Una copia O(n²) por adjunto: los kernels por bloques y SIMD recorren double[] y el
+            // coste O(n³) del producto la hace despreciable
+            double[] matrixA = attached ? attachedA.toDoubleArray() : generateRandomMatrix(size);
+            double[] matrixB = attached ? attachedB.toDoubleArray() : generateRandomMatrix(size);
+
+            long multStart = System.nanoTime();
+            double[] resultMatrix = multiply(compute, kernel, simd, matrixA, matrixB, size);
+            long multNanos = Math.max(1, System.nanoTime() - multStart);
+
+            if (attached) {
+                result.setSuccess(true);
+                result.setData(Attachment.ofMatrix(resultMatrix, size, size));
+                result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+                return result;
+            }
+
+            double gflops = 2.0 * size * size * size / multNanos;
+            String summary = String.format(Locale.ROOT,
+                    "Matriz %dx%d multiplicada. Elemento [0][0] = %.2f (kernel %s, %.2f GFLOP/s)",
+                    size, size, resultMatrix[0], kernel == Kernel.NAIVE || !simd ? kernel : kernel + "+SIMD", gflops);
+
             result.setSuccess(true);
             result.setData(summary);
-            
+
         } catch (Exception e) {
             result.setSuccess(false);
             result.setError(e.getMessage());
         }
-        
+
         result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
         return result;
     }
-    
-    private double[][] generateRandomMatrix(int size) {
+
+    // Lado común de dos adjuntos que deben ser matrices DOUBLE cuadradas del mismo tamaño
+    private static int squareSize(Attachment a, Attachment b) {
+        if (a == null || b == null) {
+            throw new IllegalArgumentException("Adjuntos 'a' y 'b' requeridos juntos");
+        }
+        int[] shapeA = a.getShape();
+        int[] shapeB = b.getShape();
+        if (a.getType() != Attachment.Type.DOUBLE || b.getType() != Attachment.Type.DOUBLE
+                || shapeA.length != 2 || shapeA[0] != shapeA[1] || !Arrays.equals(shapeA, shapeB)) {
+            throw new IllegalArgumentException("Los adjuntos 'a' y 'b' deben ser matrices DOUBLE n×n del mismo tamaño");
+        }
+        return shapeA[0];
+    }
+
+    private Kernel parseKernel(Object kernelObj) {
+        if (kernelObj == null) {
+            return Kernel.PARALLEL;
+        }
+        if (kernelObj instanceof Kernel) {
+            return (Kernel) kernelObj;
+        }
+        return Kernel.valueOf(kernelObj.toString().toUpperCase(Locale.ROOT));
+    }
+
+    private double[] generateRandomMatrix(int size) {
         Random random = new Random();
-        double[][] matrix = new double[size][size];
-        
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                matrix[i][j] = random.nextDouble() * 100;
-            }
+        double[] matrix = new double[size * size];
+
+        for (int i = 0; i < matrix.length; i++) {
+            matrix[i] = random.nextDouble() * 100;
         }
-        
+
         return matrix;
     }
-    
-    private double[][] multiplyMatrices(double[][] a, double[][] b) {
-        int size = a.length;
-        double[][] result = new double[size][size];
-        
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                result[i][j] = 0;
-                for (int k = 0; k < size; k++) {
-                    result[i][j] += a[i][k] * b[k][j];
+
+    /**
+     * Indica si el kernel SIMD (Vector API) está disponible en esta JVM.
+     */
+    public static boolean isVectorAvailable() {
+        return VECTOR_KERNEL != null;
+    }
+
+    // El kernel SIMD solo existe si se compiló con el perfil 'vector' y el módulo está cargado
+    private static RowKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            Class<?> kernelClass = Class.forName("com.taskbalancer.tasks.VectorMatrixKernel");
+            return (RowKernel) kernelClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Multiplica A·B (ambas n×n por filas) con el kernel indicado.
+     * Con simd=true usa el kernel vectorial si está disponible.
+     */
+    static double[] multiply(Kernel kernel, boolean simd, double[] a, double[] b, int n) {
+        return multiply(ComputePool.common(), kernel, simd, a, b, n);
+    }
+
+    /**
+     * Igual que multiply(kernel, simd, a, b, n) pero PARALLEL usa el pool indicado,
+     * y solo reparte filas si al llamar le toca más de un núcleo.
+     */
+    static double[] multiply(ComputePool compute, Kernel kernel, boolean simd, double[] a, double[] b, int n) {
+        double[] c = new double[n * n];
+        RowKernel rows = simd && VECTOR_KERNEL != null ? VECTOR_KERNEL : SCALAR_KERNEL;
+
+        switch (kernel) {
+            case NAIVE:
+                multiplyNaive(a, b, c, n);
+                break;
+            case BLOCKED:
+                rows.multiplyRows(a, b, c, n, 0, n);
+                break;
+            case PARALLEL:
+            default:
+                if (compute.shouldFork()) {
+                    compute.invoke(new RowBlockTask(rows, a, b, c, n, 0, n));
+                } else {
+                    rows.multiplyRows(a, b, c, n, 0, n);
                 }
+                break;
+        }
+
+        return c;
+    }
+
+    private static void multiplyNaive(double[] a, double[] b, double[] c, int n) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int k = 0; k < n; k++) {
+                    sum += a[i * n + k] * b[k * n + j];
+                }
+                c[i * n + j] = sum;
             }
         }
-        
-        return result;
     }
-}
 
+    /**
+     * Kernel por bloques sobre las filas [rowStart, rowEnd) de C.
+     * El orden i-k-j recorre B y C por filas, así el bucle interno es contiguo.
+     */
+    static void multiplyBlocked(double[] a, double[] b, double[] c, int n, int rowStart, int rowEnd) {
+        for (int ii = rowStart; ii < rowEnd; ii += BLOCK) {
+            int iMax = Math.min(ii + BLOCK, rowEnd);
+            for (int kk = 0; kk < n; kk += BLOCK) {
+                int kMax = Math.min(kk + BLOCK, n);
+                for (int jj = 0; jj < n; jj += BLOCK) {
+                    int jMax = Math.min(jj + BLOCK, n);
+                    for (int i = ii; i < iMax; i++) {
+                        int rowC = i * n;
+                        for (int k = kk; k < kMax; k++) {
+                            double aik = a[i * n + k];
+                            int rowB = k * n;
+                            for (int j = jj; j < jMax; j++) {
+                                c[rowC + j] += aik * b[rowB + j];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Divide las filas de C por la mitad hasta llegar a un bloque, que se calcula en serie.
+     * Cada subtarea escribe en filas disjuntas de C, así que no hace falta sincronizar.
+     */
+    private static class RowBlockTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RowKernel kernel;
+        private final double[] a;
+        private final double[] b;
+        private final double[] c;
+        private final int n;
+        private final int rowStart;
+        private final int rowEnd;
+
+        RowBlockTask(RowKernel kernel, double[] a, double[] b, double[] c, int n, int rowStart, int rowEnd) {
+            this.kernel = kernel;
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.n = n;
+            this.rowStart = rowStart;
+            this.rowEnd = rowEnd;
+        }
+
+        @Override
+        protected void compute() {
+            if (rowEnd - rowStart <= BLOCK) {
+                kernel.multiplyRows(a, b, c, n, rowStart, rowEnd);
+                return;
+            }
+
+            // Partir en múltiplos de BLOCK para no fragmentar los bloques de filas
+            int mid = rowStart + ((rowEnd - rowStart) / 2 + BLOCK - 1) / BLOCK * BLOCK;
+            invokeAll(new RowBlockTask(kernel, a, b, c, n, rowStart, mid),
+                      new RowBlockTask(kernel, a, b, c, n, mid, rowEnd));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.taskbalancer.tasks;
+
+/**
+ * Aritmética modular de 64 bits en forma de Montgomery para un módulo impar fijo.
+ * Evita el desbordamiento de a*b usando el producto completo de 128 bits
+ * (Math.unsignedMultiplyHigh) y sustituye la división por multiplicaciones.
+ */
+final class Montgomery {
+
+    private final long n;
+    private final long negInv;
+    private final long one;
+    private final long r2;
+
+    Montgomery(long n) {
+        if (n <= 1 || (n & 1) == 0) {
+            throw new IllegalArgumentException("El módulo debe ser impar y mayor que 1: " + n);
+        }
+        this.n = n;
+
+        // Inverso de n módulo 2^64 por Newton (cada paso duplica los bits correctos)
+        long inv = n;
+        for (int i = 0; i < 5; i++) {
+            inv *= 2 - n * inv;
+        }
+        this.negInv = -inv;
+
+        // R mod n y R^2 mod n, con R = 2^64
+        long r = Long.remainderUnsigned(-1L, n) + 1;
+        if (r == n) {
+            r = 0;
+        }
+        this.one = r;
+        for (int i = 0; i < 64; i++) {
+            r = addMod(r, r);
+        }
+        this.r2 = r;
+    }
+
+    long modulus() {
+        return n;
+    }
+
+    /** Representación de Montgomery de 1. */
+    long one() {
+        return one;
+    }
+
+    long toMontgomery(long a) {
+        return multiply(Long.remainderUnsigned(a, n), r2);
+    }
+
+    long fromMontgomery(long a) {
+        return reduce(0, a);
+    }
+
+    /** Producto de dos valores en forma de Montgomery. */
+    long multiply(long a, long b) {
+        return reduce(Math.unsignedMultiplyHigh(a, b), a * b);
+    }
+
+    long pow(long base, long exponent) {
+        long result = one;
+        while (exponent != 0) {
+            if ((exponent & 1) != 0) {
+                result = multiply(result, base);
+            }
+            base = multiply(base, base);
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    long addMod(long a, long b) {
+        long sum = a + b;
+        return Long.compareUnsigned(sum, n) >= 0 ? sum - n : sum;
+    }
+
+    long subMod(long a, long b) {
+        return a >= b ? a - b : a - b + n;
+    }
+
+    // REDC: (hi·2^64 + lo) / 2^64 mod n, válido mientras hi < n
+    private long reduce(long hi, long lo) {
+        long m = lo * negInv;
+        long t = hi + Math.unsignedMultiplyHigh(m, n) + (lo != 0 ? 1 : 0);
+        return Long.compareUnsigned(t, n) >= 0 ? t - n : t;
+    }
+}
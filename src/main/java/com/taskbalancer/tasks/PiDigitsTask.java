@@ -0,0 +1,189 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Task;
+import com.taskbalancer.common.Result;
+import java.math.BigInteger;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tarea que calcula N decimales exactos de PI con la serie de Chudnovsky.
+ * La suma se evalúa por división binaria (binary splitting) sobre BigInteger,
+ * repartiendo los subintervalos en el ComputePool del worker (en serie si está saturado).
+ * Devuelve una cadena "3.1415..." con exactamente 'digits' decimales.
+ */
+public class PiDigitsTask implements TaskHandler {
+
+    // Por encima de este tamaño la raíz, la división y toString finales superan el timeout del Master (60 s)
+    private static final int MAX_DIGITS = 200000;
+
+    // Cada término de la serie aporta ~14.18 decimales
+    private static final double DIGITS_PER_TERM = 14.181647462725477;
+
+    // Decimales extra para absorber el error de truncamiento
+    private static final int GUARD_DIGITS = 10;
+
+    // Por debajo de este número de términos el intervalo se evalúa en serie
+    private static final long SEQUENTIAL_TERMS = 64;
+
+    // A partir de este tamaño (bits) los productos usan BigInteger.parallelMultiply
+    private static final int PARALLEL_MULTIPLY_BITS = 1 << 20;
+
+    private static final BigInteger A = BigInteger.valueOf(13591409);
+    private static final BigInteger B = BigInteger.valueOf(545140134);
+    private static final BigInteger C3_OVER_24 = BigInteger.valueOf(640320).pow(3).divide(BigInteger.valueOf(24));
+
+    private final ComputePool compute;
+
+    public PiDigitsTask() {
+        this(ComputePool.common());
+    }
+
+    public PiDigitsTask(ComputePool compute) {
+        this.compute = compute;
+    }
+
+    @Override
+    public String getTaskType() {
+        return "PI_DIGITS";
+    }
+
+    @Override
+    public Result execute(Task task) {
+        long startTime = System.currentTimeMillis();
+        Result result = new Result();
+        result.setTaskId(task.getTaskId());
+
+        try {
+            Object digitsObj = task.getParameters().get("digits");
+
+            if (digitsObj == null) {
+                throw new IllegalArgumentException("Parámetro 'digits' requerido");
+            }
+
+            int digits = ((Number) digitsObj).intValue();
+
+            if (digits < 1 || digits > MAX_DIGITS) {
+                throw new IllegalArgumentException("'digits' debe estar entre 1 y " + MAX_DIGITS);
+            }
+
+            result.setSuccess(true);
+            result.setData(computePi(compute, digits));
+
+        } catch (Exception e) {
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+        }
+
+        result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * Calcula PI con 'digits' decimales (truncado, no redondeado).
+     */
+    static String computePi(int digits) {
+        return computePi(ComputePool.common(), digits);
+    }
+
+    static String computePi(ComputePool compute, int digits) {
+        int precision = digits + GUARD_DIGITS;
+        long terms = (long) (precision / DIGITS_PER_TERM) + 1;
+
+        Term sum = compute.shouldFork() ? compute.invoke(new SplitTask(0, terms, true)) : splitRoot(terms);
+
+        // PI = 426880 * sqrt(10005) * Q / T, escalado por 10^precision
+        BigInteger scale = BigInteger.TEN.pow(precision);
+        BigInteger sqrt10005 = BigInteger.valueOf(10005).multiply(scale.multiply(scale)).sqrt();
+        BigInteger pi = multiply(BigInteger.valueOf(426880).multiply(sqrt10005), sum.q).divide(sum.t);
+
+        String raw = pi.toString();
+        return raw.charAt(0) + "." + raw.substring(1, digits + 1);
+    }
+
+    /** Resultado parcial P(a,b), Q(a,b), T(a,b) de la división binaria. */
+    private static final class Term {
+        final BigInteger p;
+        final BigInteger q;
+        final BigInteger t;
+
+        Term(BigInteger p, BigInteger q, BigInteger t) {
+            this.p = p;
+            this.q = q;
+            this.t = t;
+        }
+    }
+
+    private static Term leaf(long a) {
+        if (a == 0) {
+            return new Term(BigInteger.ONE, BigInteger.ONE, A);
+        }
+
+        BigInteger ba = BigInteger.valueOf(a);
+        BigInteger p = BigInteger.valueOf(6 * a - 5)
+                .multiply(BigInteger.valueOf(2 * a - 1))
+                .multiply(BigInteger.valueOf(6 * a - 1));
+        BigInteger q = ba.multiply(ba).multiply(ba).multiply(C3_OVER_24);
+        BigInteger t = p.multiply(A.add(B.multiply(ba)));
+
+        return new Term(p, q, (a & 1) == 1 ? t.negate() : t);
+    }
+
+    private static Term combine(Term left, Term right, boolean last) {
+        // P del intervalo completo no se usa en la raíz: se evita la multiplicación más cara
+        BigInteger p = last ? null : multiply(left.p, right.p);
+        BigInteger q = multiply(left.q, right.q);
+        BigInteger t = multiply(left.t, right.q).add(multiply(left.p, right.t));
+        return new Term(p, q, t);
+    }
+
+    private static BigInteger multiply(BigInteger x, BigInteger y) {
+        if (Math.min(x.bitLength(), y.bitLength()) >= PARALLEL_MULTIPLY_BITS) {
+            return x.parallelMultiply(y);
+        }
+        return x.multiply(y);
+    }
+
+    // Raíz de la división binaria en serie (sin calcular P del intervalo completo)
+    private static Term splitRoot(long terms) {
+        if (terms == 1) {
+            return leaf(0);
+        }
+        long m = terms >>> 1;
+        return combine(splitSequential(0, m), splitSequential(m, terms), true);
+    }
+
+    private static Term splitSequential(long a, long b) {
+        if (b - a == 1) {
+            return leaf(a);
+        }
+        long m = (a + b) >>> 1;
+        return combine(splitSequential(a, m), splitSequential(m, b), false);
+    }
+
+    private static final class SplitTask extends RecursiveTask<Term> {
+        private static final long serialVersionUID = 1L;
+
+        private final long a;
+        private final long b;
+        private final boolean root;
+
+        SplitTask(long a, long b, boolean root) {
+            this.a = a;
+            this.b = b;
+            this.root = root;
+        }
+
+        @Override
+        protected Term compute() {
+            if (b - a <= SEQUENTIAL_TERMS) {
+                return splitSequential(a, b);
+            }
+
+            long m = (a + b) >>> 1;
+            SplitTask right = new SplitTask(m, b, false);
+            right.fork();
+            Term left = new SplitTask(a, m, false).compute();
+            return combine(left, right.join(), root);
+        }
+    }
+}
@@ -2,60 +2,141 @@ package com.taskbalancer.tasks;
 
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
-import java.util.Random;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.function.IntToLongFunction;
+import java.util.stream.IntStream;
 
 /**
  * Tarea que estima el valor de PI usando el método Monte Carlo.
+ *
+ * Parámetros opcionales:
+ * - 'parallel': reparte las iteraciones (long) entre los núcleos libres del ComputePool del
+ *   worker; con el nodo saturado recorre los mismos trozos en serie (mismo resultado).
+ * - 'seed': semilla para obtener un resultado reproducible (también en paralelo).
+ * - 'counts': devuelve un Map con 'inside', 'total' y 'estimate' en lugar del double,
+ *   para poder combinar estimaciones parciales de varios workers con mergeCounts.
  */
 public class PiEstimationTask implements TaskHandler {
-    
+
+    // Iteraciones mínimas por trozo y número máximo de trozos en modo paralelo.
+    // El reparto depende solo de las iteraciones, no de los núcleos, para que la semilla sea reproducible.
+    private static final long MIN_CHUNK_ITERATIONS = 1L << 20;
+    private static final int MAX_CHUNKS = 4096;
+
+    private final ComputePool compute;
+
+    public PiEstimationTask() {
+        this(ComputePool.common());
+    }
+
+    public PiEstimationTask(ComputePool compute) {
+        this.compute = compute;
+    }
+
     @Override
     public String getTaskType() {
         return "PI_ESTIMATION";
     }
-    
+
     @Override
     public Result execute(Task task) {
         long startTime = System.currentTimeMillis();
         Result result = new Result();
         result.setTaskId(task.getTaskId());
-        
+
         try {
             Object iterObj = task.getParameters().get("iterations");
-            
+
             if (iterObj == null) {
                 throw new IllegalArgumentException("Parámetro 'iterations' requerido");
             }
-            
-            int iterations = ((Number) iterObj).intValue();
-            double piEstimate = estimatePi(iterations);
-            
+
+            long iterations = ((Number) iterObj).longValue();
+            if (iterations <= 0) {
+                throw new IllegalArgumentException("'iterations' debe ser positivo");
+            }
+
+            Object seedObj = task.getParameters().get("seed");
+            SplittableRandom root = seedObj != null
+                    ? new SplittableRandom(((Number) seedObj).longValue())
+                    : new SplittableRandom();
+
+            boolean parallel = Boolean.TRUE.equals(task.getParameters().get("parallel"));
+            long inside = parallel ? countInsideParallel(iterations, root) : countInside(root, iterations);
+
             result.setSuccess(true);
-            result.setData(piEstimate);
-            
+            if (Boolean.TRUE.equals(task.getParameters().get("counts"))) {
+                result.setData(toCounts(inside, iterations));
+            } else {
+                result.setData(4.0 * inside / iterations);
+            }
+
         } catch (Exception e) {
             result.setSuccess(false);
             result.setError(e.getMessage());
         }
-        
+
         result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
         return result;
     }
-    
-    private double estimatePi(int iterations) {
-        Random random = new Random();
-        int insideCircle = 0;
-        
-        for (int i = 0; i < iterations; i++) {
+
+    private static long countInside(SplittableRandom random, long iterations) {
+        long insideCircle = 0;
+
+        for (long i = 0; i < iterations; i++) {
             double x = random.nextDouble();
             double y = random.nextDouble();
-            
+
             if (x * x + y * y <= 1.0) {
                 insideCircle++;
             }
         }
-        
-        return 4.0 * insideCircle / iterations;
+
+        return insideCircle;
     }
-}
 
+    private long countInsideParallel(long iterations, SplittableRandom root) {
+        int chunks = (int) Math.min(MAX_CHUNKS, Math.max(1, iterations / MIN_CHUNK_ITERATIONS));
+        long perChunk = iterations / chunks;
+        long remainder = iterations % chunks;
+
+        // Un flujo independiente por trozo, derivado en orden del generador raíz
+        SplittableRandom[] generators = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            generators[c] = root.split();
+        }
+
+        IntToLongFunction chunk = c -> countInside(generators[c], perChunk + (c < remainder ? 1 : 0));
+        if (!compute.shouldFork()) {
+            return IntStream.range(0, chunks).mapToLong(chunk).sum();
+        }
+        return compute.call(() -> IntStream.range(0, chunks).parallel().mapToLong(chunk).sum());
+    }
+
+    private static Map<String, Object> toCounts(long inside, long total) {
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("inside", inside);
+        counts.put("total", total);
+        counts.put("estimate", 4.0 * inside / total);
+        return counts;
+    }
+
+    /**
+     * Combina los recuentos parciales (modo 'counts') de varias tareas en un único recuento.
+     */
+    public static Map<String, Object> mergeCounts(List<Map<String, Object>> partials) {
+        long inside = 0;
+        long total = 0;
+        for (Map<String, Object> partial : partials) {
+            inside += ((Number) partial.get("inside")).longValue();
+            total += ((Number) partial.get("total")).longValue();
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("No hay iteraciones que combinar");
+        }
+        return toCounts(inside, total);
+    }
+}
@@ -0,0 +1,133 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Task;
+import com.taskbalancer.common.Result;
+import java.util.stream.IntStream;
+
+/**
+ * Tarea que cuenta los primos menores o iguales que x, π(x), sin enumerarlos.
+ * Usa el algoritmo de Lucy_Hedgehog (criba sobre los valores x/i), con coste
+ * O(x^(3/4)) en tiempo y O(sqrt(x)) en memoria; las pasadas grandes se reparten
+ * entre los núcleos libres del ComputePool del worker (en serie si no los hay). Devuelve solo el recuento (Long).
+ */
+public class PrimeCountTask implements TaskHandler {
+
+    private static final long MAX_X = 10_000_000_000_000L;
+
+    // Pasadas con menos actualizaciones que esto se hacen en serie e in situ
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private final ComputePool compute;
+
+    public PrimeCountTask() {
+        this(ComputePool.common());
+    }
+
+    public PrimeCountTask(ComputePool compute) {
+        this.compute = compute;
+    }
+
+    @Override
+    public String getTaskType() {
+        return "PRIME_COUNT";
+    }
+
+    @Override
+    public Result execute(Task task) {
+        long startTime = System.currentTimeMillis();
+        Result result = new Result();
+        result.setTaskId(task.getTaskId());
+
+        try {
+            Object limitObj = task.getParameters().get("limit");
+
+            if (limitObj == null) {
+                throw new IllegalArgumentException("Parámetro 'limit' requerido");
+            }
+
+            long limit = ((Number) limitObj).longValue();
+
+            if (limit > MAX_X) {
+                throw new IllegalArgumentException("Límite máximo: " + MAX_X);
+            }
+
+            result.setSuccess(true);
+            result.setData(countPrimes(compute, limit));
+
+        } catch (Exception e) {
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+        }
+
+        result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    /**
+     * π(x) por Lucy_Hedgehog.
+     * small[i] = S(i) y large[i] = S(x/i) para i <= sqrt(x), donde S(v) empieza
+     * como v - 1 y tras cribar con cada primo p <= sqrt(x) queda en π(v).
+     */
+    static long countPrimes(long x) {
+        return countPrimes(ComputePool.common(), x);
+    }
+
+    static long countPrimes(ComputePool compute, long x) {
+        if (x < 2) return 0;
+
+        int r = (int) PrimeUtils.isqrt(x);
+        long[] small = new long[r + 1];
+        long[] large = new long[r + 1];
+        for (int i = 1; i <= r; i++) {
+            small[i] = i - 1;
+            large[i] = x / i - 1;
+        }
+
+        long[] scratch = new long[r + 1];
+
+        for (int p = 2; p <= r; p++) {
+            if (small[p] != small[p - 1]) { // p es primo
+                sieveStep(compute, x, r, p, small, large, scratch);
+            }
+        }
+
+        return large[1];
+    }
+
+    // Elimina de S(v), para v >= p^2, los números cuyo menor factor primo es p
+    private static void sieveStep(ComputePool compute, long x, int r, int p, long[] small, long[] large, long[] scratch) {
+        long sp = small[p - 1];
+        long p2 = (long) p * p;
+
+        // large[i] -= S(x/(i·p)) - S(p-1), para x/i >= p^2. Debe ir antes que small.
+        int largeLimit = (int) Math.min(r, x / p2);
+        if (largeLimit >= PARALLEL_THRESHOLD && compute.shouldFork()) {
+            compute.run(() -> IntStream.rangeClosed(1, largeLimit).parallel()
+                    .forEach(i -> scratch[i] = large[i] - (largeValue(x, r, small, large, (long) i * p) - sp)));
+            System.arraycopy(scratch, 1, large, 1, largeLimit);
+        } else {
+            for (int i = 1; i <= largeLimit; i++) {
+                large[i] -= largeValue(x, r, small, large, (long) i * p) - sp;
+            }
+        }
+
+        // small[i] -= S(i/p) - S(p-1), para i >= p^2, de mayor a menor para leer valores previos
+        if (p2 <= r) {
+            int from = (int) p2;
+            if (r - from + 1 >= PARALLEL_THRESHOLD && compute.shouldFork()) {
+                compute.run(() -> IntStream.rangeClosed(from, r).parallel()
+                        .forEach(i -> scratch[i] = small[i] - (small[i / p] - sp)));
+                System.arraycopy(scratch, from, small, from, r - from + 1);
+            } else {
+                for (int i = r; i >= from; i--) {
+                    small[i] -= small[i / p] - sp;
+                }
+            }
+        }
+    }
+
+    // S(x/d) para d = i·p: está en large si d <= sqrt(x), si no en small[x/d]
+    private static long largeValue(long x, int r, long[] small, long[] large, long d) {
+        return d <= r ? large[(int) d] : small[(int) (x / d)];
+    }
+}
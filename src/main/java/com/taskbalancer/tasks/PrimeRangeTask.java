@@ -1,75 +1,244 @@
 package com.taskbalancer.tasks;
 
+import com.taskbalancer.common.LongSequence;
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
 
 /**
  * Tarea que encuentra todos los números primos en un rango.
+ * Usa una criba segmentada cuyos primos base salen de la PrimeTable del worker;
+ * si sqrt(end) supera la tabla, recurre a Miller-Rabin número a número.
+ * Devuelve los primos como LongSequence (long[] sin boxing, compacto en el cable).
+ * En streaming los emite en trozos de CHUNK_SIZE primos y el resultado final es el recuento.
+ * Si el ComputePool del worker tiene núcleos libres, criba varios segmentos a la vez
+ * (tantos como núcleos le tocan a la tarea) y los vuelca en orden.
  */
-public class PrimeRangeTask implements TaskHandler {
-    
+public class PrimeRangeTask implements StreamingTaskHandler {
+
+    // Tamaño de segmento de la criba (cabe en L2)
+    private static final int SEGMENT_SIZE = 1 << 18;
+
+    // Primos por trozo en modo streaming
+    static final int CHUNK_SIZE = 1 << 16;
+
+    private final PrimeTable primeTable;
+    private final ComputePool compute;
+
+    public PrimeRangeTask() {
+        this(new PrimeTable());
+    }
+
+    public PrimeRangeTask(PrimeTable primeTable) {
+        this(primeTable, ComputePool.common());
+    }
+
+    public PrimeRangeTask(PrimeTable primeTable, ComputePool compute) {
+        this.primeTable = primeTable;
+        this.compute = compute;
+    }
+
     @Override
     public String getTaskType() {
         return "PRIME_RANGE";
     }
-    
+
     @Override
     public Result execute(Task task) {
+        return execute(task, null);
+    }
+
+    @Override
+    public Result execute(Task task, Consumer<Object> chunks) {
         long startTime = System.currentTimeMillis();
         Result result = new Result();
         result.setTaskId(task.getTaskId());
-        
+
         try {
             Object startObj = task.getParameters().get("start");
             Object endObj = task.getParameters().get("end");
-            
+
             if (startObj == null || endObj == null) {
                 throw new IllegalArgumentException("Parámetros 'start' y 'end' requeridos");
             }
-            
+
             long start = ((Number) startObj).longValue();
             long end = ((Number) endObj).longValue();
-            
-            List<Long> primes = findPrimesInRange(start, end);
-            
+
+            PrimeBuffer primes = new PrimeBuffer(chunks);
+            findPrimesInRange(start, end, primes);
+
             result.setSuccess(true);
-            result.setData(primes);
-            
+            result.setData(chunks != null ? (Object) primes.finish() : primes.toSequence());
+
         } catch (Exception e) {
             result.setSuccess(false);
             result.setError(e.getMessage());
         }
-        
+
         result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
         return result;
     }
-    
-    private List<Long> findPrimesInRange(long start, long end) {
-        List<Long> primes = new ArrayList<>();
-        
-        for (long n = Math.max(2, start); n <= end; n++) {
-            if (isPrime(n)) {
-                primes.add(n);
+
+    private void findPrimesInRange(long start, long end, PrimeBuffer primes) {
+        long low = Math.max(2, start);
+
+        if (low > end) {
+            return;
+        }
+
+        long root = PrimeUtils.isqrt(end);
+        if (!primeTable.covers(root)) {
+            for (long n = low; n <= end && n > 0; n++) {
+                if (PrimeUtils.isPrime(n)) {
+                    primes.add(n);
+                }
             }
+            return;
+        }
+
+        int[] basePrimes = primeTable.primesUpTo((int) root);
+        if (compute.shouldFork() && end - low >= 2L * SEGMENT_SIZE) {
+            sieveParallel(low, end, basePrimes, primes);
+            return;
+        }
+
+        boolean[] composite = new boolean[SEGMENT_SIZE];
+
+        for (long segLow = low; ; ) {
+            long segHigh = end - segLow < SEGMENT_SIZE ? end : segLow + SEGMENT_SIZE - 1;
+            int length = sieveSegment(segLow, segHigh, basePrimes, composite);
+
+            for (int i = 0; i < length; i++) {
+                if (!composite[i]) {
+                    primes.add(segLow + i);
+                }
+            }
+
+            if (segHigh == end) break;
+            segLow = segHigh + 1;
         }
-        
-        return primes;
     }
-    
-    private boolean isPrime(long n) {
-        if (n <= 1) return false;
-        if (n <= 3) return true;
-        if (n % 2 == 0 || n % 3 == 0) return false;
-        
-        for (long i = 5; i * i <= n; i += 6) {
-            if (n % i == 0 || n % (i + 2) == 0) {
-                return false;
+
+    /**
+     * Criba por tandas de segmentos en el ComputePool. El tamaño de la tanda se
+     * recalcula en cada vuelta, así la tarea cede núcleos si llegan otras al worker.
+     */
+    private void sieveParallel(long low, long end, int[] basePrimes, PrimeBuffer primes) {
+        long next = low;
+        boolean done = false;
+
+        while (!done) {
+            int batch = compute.parallelism();
+            List<Callable<long[]>> work = new ArrayList<>(batch);
+            for (int i = 0; i < batch && !done; i++) {
+                long segLow = next;
+                long segHigh = end - segLow < SEGMENT_SIZE ? end : segLow + SEGMENT_SIZE - 1;
+                work.add(() -> sieveToArray(segLow, segHigh, basePrimes));
+                if (segHigh == end) {
+                    done = true;
+                } else {
+                    next = segHigh + 1;
+                }
+            }
+
+            for (long[] segment : compute.invokeAll(work)) {
+                for (long p : segment) {
+                    primes.add(p);
+                }
             }
         }
-        
-        return true;
     }
-}
 
+    private static long[] sieveToArray(long segLow, long segHigh, int[] basePrimes) {
+        boolean[] composite = new boolean[(int) (segHigh - segLow + 1)];
+        int length = sieveSegment(segLow, segHigh, basePrimes, composite);
+
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (!composite[i]) {
+                count++;
+            }
+        }
+
+        long[] found = new long[count];
+        for (int i = 0, j = 0; j < count; i++) {
+            if (!composite[i]) {
+                found[j++] = segLow + i;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Marca en composite[0, length) los compuestos de [segLow, segHigh] y devuelve length.
+     */
+    private static int sieveSegment(long segLow, long segHigh, int[] basePrimes, boolean[] composite) {
+        int length = (int) (segHigh - segLow + 1);
+        Arrays.fill(composite, 0, length, false);
+
+        for (int p : basePrimes) {
+            long square = (long) p * p;
+            if (square > segHigh) break;
+
+            // Primer múltiplo de p en el segmento (sin sumar a segLow, que puede rozar Long.MAX_VALUE)
+            long rem = segLow % p;
+            long idx = rem == 0 ? 0 : p - rem;
+            if (square > segLow) {
+                idx = Math.max(idx, square - segLow);
+            }
+            for (; idx < length; idx += p) {
+                composite[(int) idx] = true;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Acumulador de longs que crece por duplicación. Con un destino de trozos,
+     * vacía el buffer cada CHUNK_SIZE valores en lugar de crecer.
+     */
+    private static final class PrimeBuffer {
+        private final Consumer<Object> chunks;
+        private long[] values = new long[64];
+        private int count;
+        private long total;
+
+        PrimeBuffer(Consumer<Object> chunks) {
+            this.chunks = chunks;
+        }
+
+        void add(long value) {
+            if (count == values.length) {
+                if (chunks != null && count >= CHUNK_SIZE) {
+                    flush();
+                } else {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+            }
+            values[count++] = value;
+            total++;
+        }
+
+        LongSequence toSequence() {
+            return LongSequence.of(Arrays.copyOf(values, count));
+        }
+
+        /** Emite lo pendiente y devuelve el total de primos encontrados. */
+        long finish() {
+            flush();
+            return total;
+        }
+
+        private void flush() {
+            if (count > 0) {
+                chunks.accept(toSequence());
+                count = 0;
+            }
+        }
+    }
+}
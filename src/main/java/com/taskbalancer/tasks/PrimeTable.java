@@ -0,0 +1,140 @@
+package com.taskbalancer.tasks;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de primos pequeños compartida por los handlers de un worker.
+ * Criba de Eratóstenes solo de impares empaquetada en bits (1 bit por impar),
+ * que crece bajo demanda duplicando su límite hasta un máximo configurable.
+ *
+ * Es segura entre hilos: cada crecimiento publica una criba nueva e inmutable
+ * mediante un campo volatile, así las lecturas no necesitan sincronización.
+ */
+public final class PrimeTable {
+
+    /** Límite máximo por defecto: 2^27 (8 MB de bits). */
+    public static final int DEFAULT_MAX_BOUND = 1 << 27;
+
+    private static final int INITIAL_BOUND = 1 << 16;
+
+    private final int maxBound;
+    private volatile Sieve sieve;
+
+    public PrimeTable() {
+        this(DEFAULT_MAX_BOUND);
+    }
+
+    public PrimeTable(int maxBound) {
+        if (maxBound < 2) {
+            throw new IllegalArgumentException("El límite de la tabla debe ser al menos 2: " + maxBound);
+        }
+        this.maxBound = maxBound;
+        this.sieve = new Sieve(Math.min(INITIAL_BOUND, maxBound));
+    }
+
+    /** Mayor valor que la tabla puede llegar a cubrir. */
+    public int getMaxBound() {
+        return maxBound;
+    }
+
+    /** Límite cribado actualmente (crece con el uso). */
+    public int getCurrentBound() {
+        return sieve.limit;
+    }
+
+    /** Indica si n está dentro del rango que la tabla puede resolver. */
+    public boolean covers(long n) {
+        return n <= maxBound;
+    }
+
+    /**
+     * Consulta la primalidad de n, que debe cumplir covers(n).
+     */
+    public boolean isPrime(long n) {
+        if (n < 2) return false;
+        if (!covers(n)) {
+            throw new IllegalArgumentException("Fuera del rango de la tabla: " + n);
+        }
+        return ensure((int) n).isPrime((int) n);
+    }
+
+    /**
+     * Devuelve los primos menores o iguales que limit (limit <= getMaxBound()).
+     */
+    public int[] primesUpTo(int limit) {
+        if (limit < 2) return new int[0];
+        if (limit > maxBound) {
+            throw new IllegalArgumentException("Fuera del rango de la tabla: " + limit);
+        }
+        return ensure(limit).primesUpTo(limit);
+    }
+
+    private Sieve ensure(int limit) {
+        Sieve current = sieve;
+        if (current.limit >= limit) {
+            return current;
+        }
+        synchronized (this) {
+            current = sieve;
+            if (current.limit < limit) {
+                long grown = Math.max(limit, 2L * current.limit);
+                current = new Sieve((int) Math.min(maxBound, grown));
+                sieve = current;
+            }
+            return current;
+        }
+    }
+
+    /** Criba inmutable: el bit i de composite representa el impar 2i+1. */
+    private static final class Sieve {
+        final int limit;
+        final long[] composite;
+
+        Sieve(int limit) {
+            this.limit = limit;
+            int odds = (limit + 1) >>> 1;
+            this.composite = new long[(odds + 63) >>> 6];
+            composite[0] |= 1L; // el 1 no es primo
+
+            for (long p = 3; p * p <= limit; p += 2) {
+                if (!isSet((int) (p >>> 1))) {
+                    for (long m = p * p; m <= limit; m += 2 * p) {
+                        int bit = (int) (m >>> 1);
+                        composite[bit >>> 6] |= 1L << bit;
+                    }
+                }
+            }
+        }
+
+        boolean isSet(int bit) {
+            return (composite[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        boolean isPrime(int n) {
+            if (n == 2) return true;
+            if ((n & 1) == 0) return false;
+            return !isSet(n >>> 1);
+        }
+
+        int[] primesUpTo(int limit) {
+            // π(x) < 1.26·x/ln(x) para x > 1, cota suficiente para el array
+            int estimate = limit < 17 ? 8 : (int) (1.26 * limit / Math.log(limit)) + 1;
+            int[] primes = new int[estimate];
+            int count = 0;
+            primes[count++] = 2;
+
+            int lastBit = (limit - 1) >>> 1;
+            for (int w = 0; w <= lastBit >>> 6; w++) {
+                long free = ~composite[w];
+                while (free != 0) {
+                    int bit = (w << 6) + Long.numberOfTrailingZeros(free);
+                    if (bit > lastBit) break;
+                    primes[count++] = 2 * bit + 1;
+                    free &= free - 1;
+                }
+            }
+
+            return Arrays.copyOf(primes, count);
+        }
+    }
+}
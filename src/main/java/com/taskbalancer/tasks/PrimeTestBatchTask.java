@@ -0,0 +1,98 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Task;
+import com.taskbalancer.common.Result;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Tarea que comprueba la primalidad de un lote de números en una sola petición.
+ * Recibe 'numbers' como long[] (o lista de números) y devuelve un BitSet en el que
+ * el bit i está activo si numbers[i] es primo. Con núcleos libres en el ComputePool
+ * del worker los tests se reparten en paralelo por palabras de 64 bits, así cada
+ * hilo escribe en su propia palabra.
+ */
+public class PrimeTestBatchTask implements TaskHandler {
+
+    private static final int MAX_BATCH = 10000000;
+
+    private final ComputePool compute;
+
+    public PrimeTestBatchTask() {
+        this(ComputePool.common());
+    }
+
+    public PrimeTestBatchTask(ComputePool compute) {
+        this.compute = compute;
+    }
+
+    @Override
+    public String getTaskType() {
+        return "PRIME_TEST_BATCH";
+    }
+
+    @Override
+    public Result execute(Task task) {
+        long startTime = System.currentTimeMillis();
+        Result result = new Result();
+        result.setTaskId(task.getTaskId());
+
+        try {
+            long[] numbers = toLongArray(task.getParameters().get("numbers"));
+
+            if (numbers.length > MAX_BATCH) {
+                throw new IllegalArgumentException("Tamaño máximo del lote: " + MAX_BATCH);
+            }
+
+            result.setSuccess(true);
+            result.setData(testAll(compute, numbers));
+
+        } catch (Exception e) {
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+        }
+
+        result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+        return result;
+    }
+
+    private long[] toLongArray(Object numbersObj) {
+        if (numbersObj instanceof long[]) {
+            return (long[]) numbersObj;
+        }
+        if (numbersObj instanceof List) {
+            List<?> list = (List<?>) numbersObj;
+            long[] numbers = new long[list.size()];
+            for (int i = 0; i < numbers.length; i++) {
+                numbers[i] = ((Number) list.get(i)).longValue();
+            }
+            return numbers;
+        }
+        throw new IllegalArgumentException("Parámetro 'numbers' requerido (long[])");
+    }
+
+    static BitSet testAll(ComputePool compute, long[] numbers) {
+        long[] words = new long[(numbers.length + 63) >>> 6];
+
+        IntConsumer testWord = w -> {
+            long word = 0;
+            int base = w << 6;
+            int end = Math.min(numbers.length, base + 64);
+            for (int i = base; i < end; i++) {
+                if (PrimeUtils.isPrime(numbers[i])) {
+                    word |= 1L << (i - base);
+                }
+            }
+            words[w] = word;
+        };
+        if (words.length > 1 && compute.shouldFork()) {
+            compute.run(() -> IntStream.range(0, words.length).parallel().forEach(testWord));
+        } else {
+            IntStream.range(0, words.length).forEach(testWord);
+        }
+
+        return BitSet.valueOf(words);
+    }
+}
@@ -2,12 +2,26 @@ package com.taskbalancer.tasks;
 
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
+import java.math.BigInteger;
 
 /**
  * Tarea que verifica si un número es primo.
+ * Usa Miller-Rabin determinista para cualquier long; acepta también BigInteger
+ * o una cadena decimal para números de tamaño arbitrario. Los números que caben
+ * en la PrimeTable del worker se resuelven con una consulta a la criba.
  */
 public class PrimeTestTask implements TaskHandler {
     
+    private final PrimeTable primeTable;
+    
+    public PrimeTestTask() {
+        this(new PrimeTable());
+    }
+    
+    public PrimeTestTask(PrimeTable primeTable) {
+        this.primeTable = primeTable;
+    }
+    
     @Override
     public String getTaskType() {
         return "PRIME_TEST";
@@ -21,16 +35,18 @@ public class PrimeTestTask implements TaskHandler {
         
         try {
             Object numberObj = task.getParameters().get("number");
-            long number;
+            boolean isPrime;
             
-            if (numberObj instanceof Number) {
-                number = ((Number) numberObj).longValue();
+            if (numberObj instanceof BigInteger) {
+                isPrime = PrimeUtils.isPrime((BigInteger) numberObj);
+            } else if (numberObj instanceof Number) {
+                isPrime = isPrime(((Number) numberObj).longValue());
+            } else if (numberObj instanceof String) {
+                isPrime = PrimeUtils.isPrime(new BigInteger((String) numberObj));
             } else {
                 throw new IllegalArgumentException("Parámetro 'number' requerido");
             }
             
-            boolean isPrime = isPrime(number);
-            
             result.setSuccess(true);
             result.setData(isPrime);
             
@@ -44,17 +60,10 @@ public class PrimeTestTask implements TaskHandler {
     }
     
     private boolean isPrime(long n) {
-        if (n <= 1) return false;
-        if (n <= 3) return true;
-        if (n % 2 == 0 || n % 3 == 0) return false;
-        
-        for (long i = 5; i * i <= n; i += 6) {
-            if (n % i == 0 || n % (i + 2) == 0) {
-                return false;
-            }
+        // Solo se consulta la tabla si ya cubre n: no se hace crecer por un único test
+        if (n <= primeTable.getCurrentBound()) {
+            return primeTable.isPrime(n);
         }
-        
-        return true;
+        return PrimeUtils.isPrime(n);
     }
 }
-
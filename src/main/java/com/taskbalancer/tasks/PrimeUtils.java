@@ -0,0 +1,81 @@
+package com.taskbalancer.tasks;
+
+import java.math.BigInteger;
+
+/**
+ * Utilidades de primalidad compartidas por las tareas numéricas.
+ * Miller-Rabin determinista para cualquier long y ruta BigInteger para tamaños arbitrarios.
+ */
+public final class PrimeUtils {
+
+    // Bases suficientes para que Miller-Rabin sea determinista en todo el rango de 64 bits
+    private static final long[] WITNESSES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+
+    // Certeza para BigInteger.isProbablePrime (probabilidad de error < 2^-100)
+    private static final int BIG_CERTAINTY = 100;
+
+    private PrimeUtils() {
+    }
+
+    /**
+     * Comprueba si n es primo con Miller-Rabin determinista (sin falsos positivos para long).
+     */
+    public static boolean isPrime(long n) {
+        if (n < 2) return false;
+
+        for (long p : WITNESSES) {
+            if (n % p == 0) {
+                return n == p;
+            }
+        }
+        if (n < 41 * 41) return true;
+
+        Montgomery mont = new Montgomery(n);
+        long d = n - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>= s;
+
+        long one = mont.one();
+        long minusOne = mont.subMod(0, one);
+
+        for (long a : WITNESSES) {
+            long x = mont.pow(mont.toMontgomery(a), d);
+            if (x == one || x == minusOne) continue;
+
+            boolean composite = true;
+            for (int r = 1; r < s; r++) {
+                x = mont.multiply(x, x);
+                if (x == minusOne) {
+                    composite = false;
+                    break;
+                }
+            }
+            if (composite) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Raíz cuadrada entera: mayor s tal que s*s <= x (x >= 0).
+     */
+    public static long isqrt(long x) {
+        long s = (long) Math.sqrt((double) x);
+        // Comparaciones por división para no desbordar cerca de Long.MAX_VALUE
+        while (s > 0 && s > x / s) s--;
+        while (s + 1 <= x / (s + 1)) s++;
+        return s;
+    }
+
+    /**
+     * Comprueba si n es primo. Si cabe en un long usa la ruta determinista;
+     * si no, recurre a BigInteger.isProbablePrime (Miller-Rabin + Lucas).
+     */
+    public static boolean isPrime(BigInteger n) {
+        if (n.signum() <= 0) return false;
+        if (n.bitLength() < Long.SIZE) {
+            return isPrime(n.longValue());
+        }
+        return n.isProbablePrime(BIG_CERTAINTY);
+    }
+}
@@ -1,62 +1,280 @@
 package com.taskbalancer.tasks;
 
+import com.taskbalancer.common.Attachment;
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Tarea que genera números aleatorios y los ordena.
+ * Trabaja sobre int[] (sin boxing) y genera los datos por trozos, cada uno con su
+ * SplittableRandom; la generación y PARALLEL usan los núcleos libres del ComputePool
+ * del worker y, si no le toca más que uno, trabajan en serie. El parámetro opcional 'algorithm' elige el
+ * ordenamiento (SEQUENTIAL, PARALLEL, RADIX, EXTERNAL; por defecto PARALLEL).
+ *
+ * EXTERNAL ordena fuera del heap (ExternalSorter): admite 'count' de tipo long y
+ * el parámetro opcional 'runSize' (enteros por run en memoria), e informa del
+ * rendimiento en MB/s.
+ *
+ * Si la tarea trae el adjunto INT 'data', ordena esos valores en lugar de generarlos
+ * (no hace falta 'count') y devuelve el Attachment ordenado.
  */
 public class SortRandomTask implements TaskHandler {
-    
+
+    public enum Algorithm {
+        SEQUENTIAL, // Arrays.sort (dual-pivot quicksort)
+        PARALLEL,   // Arrays.parallelSort (merge sort sobre ForkJoin)
+        RADIX,      // radix sort LSD de 8 bits, para claves acotadas no negativas
+        EXTERNAL    // runs ordenadas en memoria, volcadas a disco y mezcladas k-way
+    }
+
+    private static final int DEFAULT_BOUND = 1000000;
+
+    // Elementos por trozo al generar en paralelo
+    private static final int GENERATION_CHUNK = 1 << 16;
+
+    // Enteros por run en modo EXTERNAL (32 MB de heap)
+    private static final int DEFAULT_RUN_SIZE = 1 << 23;
+
+    private final ComputePool compute;
+
+    public SortRandomTask() {
+        this(ComputePool.common());
+    }
+
+    public SortRandomTask(ComputePool compute) {
+        this.compute = compute;
+    }
+
     @Override
     public String getTaskType() {
         return "SORT_RANDOM";
     }
-    
+
     @Override
     public Result execute(Task task) {
         long startTime = System.currentTimeMillis();
         Result result = new Result();
         result.setTaskId(task.getTaskId());
-        
+
         try {
+            Algorithm algorithm = parseAlgorithm(task.getParameters().get("algorithm"));
+
+            Attachment data = task.getAttachment("data");
+            if (data != null) {
+                result.setSuccess(true);
+                result.setData(sortAttachment(compute, data, algorithm));
+                result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+                return result;
+            }
+
             Object countObj = task.getParameters().get("count");
-            
+
             if (countObj == null) {
                 throw new IllegalArgumentException("Parámetro 'count' requerido");
             }
-            
+
+            if (algorithm == Algorithm.EXTERNAL) {
+                Object runSizeObj = task.getParameters().get("runSize");
+                int runSize = runSizeObj != null ? ((Number) runSizeObj).intValue() : DEFAULT_RUN_SIZE;
+                long count = ((Number) countObj).longValue();
+
+                result.setSuccess(true);
+                result.setData(describe(sortExternal(compute, count, runSize, new SplittableRandom())));
+                result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
+                return result;
+            }
+
             int count = ((Number) countObj).intValue();
-            List<Integer> sorted = generateAndSort(count);
-            
+            int[] sorted = generateAndSort(count, algorithm);
+
             result.setSuccess(true);
-            result.setData("Ordenados " + count + " números. Primeros 10: " + 
-                        sorted.subList(0, Math.min(10, sorted.size())));
-            
+            result.setData("Ordenados " + count + " números. Primeros 10: " +
+                        Arrays.toString(Arrays.copyOf(sorted, Math.min(10, sorted.length))));
+
         } catch (Exception e) {
             result.setSuccess(false);
             result.setError(e.getMessage());
         }
-        
+
         result.setExecutionTimeMs(System.currentTimeMillis() - startTime);
         return result;
     }
-    
-    private List<Integer> generateAndSort(int count) {
-        Random random = new Random();
-        List<Integer> numbers = new ArrayList<>(count);
-        
-        for (int i = 0; i < count; i++) {
-            numbers.add(random.nextInt(1000000));
-        }
-        
-        Collections.sort(numbers);
-        
+
+    private Algorithm parseAlgorithm(Object algorithmObj) {
+        if (algorithmObj == null) {
+            return Algorithm.PARALLEL;
+        }
+        if (algorithmObj instanceof Algorithm) {
+            return (Algorithm) algorithmObj;
+        }
+        return Algorithm.valueOf(algorithmObj.toString().toUpperCase(Locale.ROOT));
+    }
+
+    private int[] generateAndSort(int count, Algorithm algorithm) {
+        if (count < 0) {
+            throw new IllegalArgumentException("'count' no puede ser negativo");
+        }
+
+        int[] numbers = generate(compute, count, DEFAULT_BOUND, new SplittableRandom());
+        sort(compute, numbers, algorithm, DEFAULT_BOUND);
+
         return numbers;
     }
-}
 
+    /**
+     * Ordena los enteros de un adjunto INT del cliente y los devuelve como adjunto.
+     * RADIX solo se usa si todos los valores son no negativos (bound = max + 1).
+     */
+    static Attachment sortAttachment(ComputePool compute, Attachment data, Algorithm algorithm) {
+        if (data.getType() != Attachment.Type.INT) {
+            throw new IllegalArgumentException("El adjunto 'data' debe ser de tipo INT");
+        }
+        if (algorithm == Algorithm.EXTERNAL) {
+            throw new IllegalArgumentException("EXTERNAL no admite el adjunto 'data'");
+        }
+
+        // Se ordena una copia: el adjunto puede estar en la DataCache para otras tareas
+        int[] numbers = data.toIntArray();
+        if (algorithm == Algorithm.RADIX) {
+            int min = Integer.MAX_VALUE;
+            int max = 0;
+            for (int v : numbers) {
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            sort(compute, numbers, min >= 0 && max < Integer.MAX_VALUE ? algorithm : Algorithm.PARALLEL, max + 1);
+        } else {
+            sort(compute, numbers, algorithm, 0);
+        }
+        return Attachment.ofInts(numbers);
+    }
+
+    static ExternalSorter.Summary sortExternal(ComputePool compute, long count, int runSize, SplittableRandom root)
+            throws IOException {
+        // Cada run se genera con su propio generador derivado del raíz
+        return new ExternalSorter(runSize, DEFAULT_BOUND, compute).sort(count,
+                (buffer, length) -> fill(compute, buffer, length, DEFAULT_BOUND, root.split()), null);
+    }
+
+    private static String describe(ExternalSorter.Summary summary) {
+        return String.format(Locale.ROOT, "Ordenados %d números. Primeros 10: %s. Externo: %d runs, %.1f MB a %.1f MB/s",
+                summary.count, Arrays.toString(summary.head), summary.runs,
+                summary.bytes() / 1e6, summary.throughputMBs());
+    }
+
+    /**
+     * Rellena un array con enteros en [0, bound), en paralelo si hay núcleos libres.
+     * Cada trozo usa su propio SplittableRandom derivado del generador raíz, así el
+     * resultado es el mismo en serie y en paralelo.
+     */
+    static int[] generate(int count, int bound, SplittableRandom root) {
+        return generate(ComputePool.common(), count, bound, root);
+    }
+
+    static int[] generate(ComputePool compute, int count, int bound, SplittableRandom root) {
+        int[] numbers = new int[count];
+        fill(compute, numbers, count, bound, root);
+        return numbers;
+    }
+
+    /**
+     * Rellena los count primeros elementos de numbers con enteros en [0, bound).
+     */
+    static void fill(ComputePool compute, int[] numbers, int count, int bound, SplittableRandom root) {
+        int chunks = (int) ((count + (long) GENERATION_CHUNK - 1) / GENERATION_CHUNK);
+
+        SplittableRandom[] generators = new SplittableRandom[chunks];
+        for (int c = 0; c < chunks; c++) {
+            generators[c] = root.split();
+        }
+
+        IntConsumer fillChunk = c -> {
+            SplittableRandom random = generators[c];
+            // En long: con count cerca de Integer.MAX_VALUE el último bloque desbordaría
+            int end = (int) Math.min(count, (c + 1L) * GENERATION_CHUNK);
+            for (int i = c * GENERATION_CHUNK; i < end; i++) {
+                numbers[i] = random.nextInt(bound);
+            }
+        };
+        if (chunks > 1 && compute.shouldFork()) {
+            compute.run(() -> IntStream.range(0, chunks).parallel().forEach(fillChunk));
+        } else {
+            IntStream.range(0, chunks).forEach(fillChunk);
+        }
+    }
+
+    static void sort(ComputePool compute, int[] numbers, Algorithm algorithm, int bound) {
+        switch (algorithm) {
+            case SEQUENTIAL:
+                Arrays.sort(numbers);
+                break;
+            case RADIX:
+                radixSort(numbers, bound);
+                break;
+            case EXTERNAL: // en memoria, las runs se ordenan como PARALLEL
+            case PARALLEL:
+            default:
+                // Sin núcleos libres el merge paralelo solo añade coste
+                if (compute.shouldFork()) {
+                    compute.run(() -> Arrays.parallelSort(numbers));
+                } else {
+                    Arrays.sort(numbers);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Radix sort LSD con dígitos de 8 bits para claves en [0, bound).
+     * Solo hace las pasadas necesarias para los bits significativos de bound - 1.
+     */
+    static void radixSort(int[] numbers, int bound) {
+        radixSort(numbers, numbers.length, bound);
+    }
+
+    /**
+     * Igual que radixSort(numbers, bound) sobre los length primeros elementos.
+     */
+    static void radixSort(int[] numbers, int length, int bound) {
+        radixSort(numbers, length, bound, new int[length]);
+    }
+
+    /**
+     * Igual que radixSort(numbers, length, bound) usando scratch (al menos length
+     * elementos) como array auxiliar, para reutilizarlo entre llamadas.
+     */
+    static void radixSort(int[] numbers, int length, int bound, int[] scratch) {
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(1, bound - 1));
+        int[] source = numbers;
+        int[] target = scratch;
+        int[] counts = new int[257];
+
+        for (int shift = 0; shift < bits; shift += 8) {
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < length; i++) {
+                counts[((source[i] >>> shift) & 0xff) + 1]++;
+            }
+            for (int d = 0; d < 256; d++) {
+                counts[d + 1] += counts[d];
+            }
+            for (int i = 0; i < length; i++) {
+                int value = source[i];
+                target[counts[(value >>> shift) & 0xff]++] = value;
+            }
+
+            int[] tmp = source;
+            source = target;
+            target = tmp;
+        }
+
+        if (source != numbers) {
+            System.arraycopy(source, 0, numbers, 0, length);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Task;
+import com.taskbalancer.common.Result;
+import java.util.function.Consumer;
+
+/**
+ * Handler capaz de emitir su resultado por trozos mientras lo calcula.
+ * Cada trozo viaja como RESULT_CHUNK hasta el cliente; el Result final cierra
+ * el flujo y lleva solo un resumen, así ningún componente guarda la lista completa.
+ */
+public interface StreamingTaskHandler extends TaskHandler {
+    /**
+     * Ejecuta la tarea entregando los datos parciales a chunks en orden.
+     */
+    Result execute(Task task, Consumer<Object> chunks);
+}
@@ -0,0 +1,134 @@
+package com.taskbalancer.worker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Límite de concurrencia adaptativo de un pool del worker (AIMD guiado por latencia y CPU).
+ * Cada tarea terminada aporta su latencia relativa: el cociente entre lo que ha tardado y
+ * la media a largo plazo de su tipo, así tareas de tipos muy distintos son comparables.
+ * Al cerrar cada ventana (update), si tiene al menos MIN_SAMPLES tareas (si no, se
+ * sigue acumulando) y mirando la mediana de las latencias relativas, para que unas
+ * pocas entradas grandes de un tipo no parezcan contención:
+ * - si las tareas van claramente más lentas que su media (contención de CPU, memoria o
+ *   disco), el límite baja hacia límite / mediana, suavizado a la mitad del camino;
+ * - si el pool ha estado lleno, la latencia se mantiene y la CPU no está saturada
+ *   (tareas que esperan a memoria o E/S), el límite sube en uno;
+ * - en otro caso se queda igual.
+ */
+public class ConcurrencyLimiter {
+
+    // Peso de cada muestra en la media a largo plazo de su tipo
+    private static final double LONG_TERM_ALPHA = 0.05;
+    // Latencia relativa que se tolera antes de bajar el límite (10 % más lenta)
+    private static final double TOLERANCE = 1.1;
+    // Objetivo más bajo de una vez: la mitad del límite
+    private static final double MIN_GRADIENT = 0.5;
+    // Parte del camino hacia el objetivo que se recorre en cada ventana
+    private static final double SMOOTHING = 0.5;
+    // Tareas necesarias en una ventana para decidir
+    static final int MIN_SAMPLES = 5;
+    // Latencias relativas que se guardan como mucho por ventana
+    private static final int MAX_WINDOW = 256;
+    // Uso de CPU del nodo a partir del cual no se sube el límite
+    static final double CPU_SATURATED = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private int limit;
+
+    private final Map<String, Double> longTermLatency = new HashMap<>();
+    private final List<Double> ratios = new ArrayList<>();
+    private int maxInFlight;
+
+    public ConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Límites inválidos: [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Registra una tarea terminada.
+     *
+     * @param latencyNanos tiempo de ejecución de la tarea
+     * @param inFlight     tareas ejecutándose en el pool cuando empezó (ella incluida)
+     */
+    public synchronized void record(String taskType, long latencyNanos, int inFlight) {
+        double latency = Math.max(1, latencyNanos);
+        Double average = longTermLatency.get(taskType);
+        if (average == null) {
+            // Primera muestra del tipo: es su referencia, no indica nada aún
+            longTermLatency.put(taskType, latency);
+            average = latency;
+        } else {
+            longTermLatency.put(taskType, average + (latency - average) * LONG_TERM_ALPHA);
+        }
+
+        if (ratios.size() < MAX_WINDOW) {
+            ratios.add(latency / average);
+        }
+        maxInFlight = Math.max(maxInFlight, inFlight);
+    }
+
+    /**
+     * Cierra la ventana de muestras y devuelve el nuevo límite. Con menos de
+     * MIN_SAMPLES tareas no decide y la ventana sigue abierta.
+     *
+     * @param cpuLoad uso de CPU del nodo en [0, 1], o negativo si no se conoce
+     */
+    public synchronized int update(double cpuLoad) {
+        if (ratios.size() < MIN_SAMPLES) {
+            return limit;
+        }
+
+        double ratio = median(ratios);
+        boolean saturated = maxInFlight >= limit;
+        int next = limit;
+
+        if (ratio > TOLERANCE) {
+            // Baja al menos uno: el objetivo suavizado queda por debajo del límite
+            double target = limit * Math.max(MIN_GRADIENT, 1.0 / ratio);
+            next = Math.min(limit - 1, (int) Math.floor(limit + (target - limit) * SMOOTHING));
+        } else if (saturated && cpuLoad < CPU_SATURATED) {
+            next = limit + 1;
+        }
+
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+        ratios.clear();
+        maxInFlight = 0;
+        return limit;
+    }
+
+    private static double median(List<Double> values) {
+        double[] sorted = new double[values.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = values.get(i);
+        }
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ConcurrencyLimiter{limit=" + limit + " en [" + minLimit + ", " + maxLimit + "]}";
+    }
+}
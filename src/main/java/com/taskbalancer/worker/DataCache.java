@@ -0,0 +1,141 @@
+package com.taskbalancer.worker;
+
+import com.taskbalancer.common.Attachment;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Caché de datos del worker: adjuntos guardados por handle para que las tareas
+ * encadenadas (p. ej. multiplicar muchas veces por la misma matriz) no los reenvíen.
+ * Está acotada en bytes y expulsa por LRU; con offHeap los datos se copian a
+ * buffers directos y no ocupan heap. Cada expulsión se notifica al listener para
+ * que el Master deje de enrutar ese handle a este worker.
+ */
+public class DataCache {
+
+    public static final String MAX_BYTES_PROPERTY = "taskbalancer.cache.maxBytes";
+    public static final String OFF_HEAP_PROPERTY = "taskbalancer.cache.offHeap";
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private final long maxBytes;
+    private final boolean offHeap;
+    private final LinkedHashMap<String, Attachment> entries;
+    private volatile Consumer<String> evictionListener;
+    private long usedBytes;
+
+    public DataCache(long maxBytes, boolean offHeap) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("'maxBytes' no puede ser negativo: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+        // Orden de acceso: el primero es el menos usado recientemente
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Caché configurada con las propiedades del sistema.
+     */
+    public static DataCache fromSystemProperties() {
+        return new DataCache(Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES),
+                Boolean.getBoolean(OFF_HEAP_PROPERTY));
+    }
+
+    public void setEvictionListener(Consumer<String> evictionListener) {
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Guarda el dato con ese handle (reemplaza el anterior) y devuelve la copia
+     * cacheada, que es la que deben usar las tareas. Si no cabe en la caché no se
+     * guarda: se devuelve el original y se notifica como expulsado.
+     */
+    public Attachment put(String handle, Attachment data) {
+        List<String> evicted = new ArrayList<>();
+        Attachment stored = offHeap ? toDirect(data) : data;
+
+        synchronized (this) {
+            Attachment previous = entries.remove(handle);
+            if (previous != null) {
+                usedBytes -= previous.byteSize();
+            }
+
+            if (stored.byteSize() > maxBytes) {
+                evicted.add(handle);
+                stored = data;
+            } else {
+                Iterator<Map.Entry<String, Attachment>> it = entries.entrySet().iterator();
+                while (usedBytes + stored.byteSize() > maxBytes && it.hasNext()) {
+                    Map.Entry<String, Attachment> eldest = it.next();
+                    usedBytes -= eldest.getValue().byteSize();
+                    evicted.add(eldest.getKey());
+                    it.remove();
+                }
+                entries.put(handle, stored);
+                usedBytes += stored.byteSize();
+            }
+        }
+
+        notifyEvicted(evicted);
+        return stored;
+    }
+
+    /** Dato cacheado con ese handle (lo marca como usado), o null. */
+    public synchronized Attachment get(String handle) {
+        return entries.get(handle);
+    }
+
+    public synchronized boolean contains(String handle) {
+        return entries.containsKey(handle);
+    }
+
+    /** Handles cacheados, del menos al más usado recientemente. */
+    public synchronized List<String> handles() {
+        return new ArrayList<>(entries.keySet());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    private static Attachment toDirect(Attachment data) {
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.byteSize());
+        direct.put(data.asByteBuffer());
+        direct.flip();
+        return Attachment.wrap(data.getType(), direct, data.getShape());
+    }
+
+    private void notifyEvicted(List<String> handles) {
+        Consumer<String> listener = evictionListener;
+        if (listener != null) {
+            handles.forEach(listener);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "DataCache{datos=" + entries.size() +
+                ", bytes=" + usedBytes + "/" + maxBytes +
+                (offHeap ? ", offHeap" : "") +
+                '}';
+    }
+}
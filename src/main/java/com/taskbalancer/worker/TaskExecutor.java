@@ -1,32 +1,68 @@
 package com.taskbalancer.worker;
 
+import com.taskbalancer.common.Attachment;
 import com.taskbalancer.common.Task;
 import com.taskbalancer.common.Result;
 import com.taskbalancer.tasks.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Ejecutor de tareas que delega a los handlers específicos.
+ * Mantiene una PrimeTable compartida por los handlers de primos del worker; su
+ * límite se configura con la propiedad del sistema taskbalancer.primeTable.maxBound.
+ * También mantiene la DataCache del worker, de la que se resuelven las referencias
+ * a datos (Task.addDataRef) antes de ejecutar cada tarea.
+ * Los handlers que paralelizan por dentro (MatrixMult, PrimeRange, PrimeCount,
+ * PrimeTestBatch, Factorize, HashStress, SortRandom, PiEstimation, PiDigits)
+ * comparten un ComputePool del tamaño de taskbalancer.worker.computeThreads (por
+ * defecto los núcleos); cada tarea en ejecución cuenta en él, así que solo
+ * reparten trabajo mientras el nodo tiene núcleos libres.
  */
 public class TaskExecutor {
     
+    public static final String PRIME_TABLE_BOUND_PROPERTY = "taskbalancer.primeTable.maxBound";
+    public static final String COMPUTE_THREADS_PROPERTY = "taskbalancer.worker.computeThreads";
+    
     private final Map<String, TaskHandler> handlers;
+    private final PrimeTable primeTable;
+    private final DataCache dataCache;
+    private final ComputePool computePool;
     
     public TaskExecutor() {
-        handlers = new HashMap<>();
+        this(new PrimeTable(Integer.getInteger(PRIME_TABLE_BOUND_PROPERTY, PrimeTable.DEFAULT_MAX_BOUND)));
+    }
+    
+    public TaskExecutor(PrimeTable primeTable) {
+        this(primeTable, DataCache.fromSystemProperties());
+    }
+    
+    public TaskExecutor(PrimeTable primeTable, DataCache dataCache) {
+        this(primeTable, dataCache, new ComputePool(
+                Integer.getInteger(COMPUTE_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors())));
+    }
+    
+    public TaskExecutor(PrimeTable primeTable, DataCache dataCache, ComputePool computePool) {
+        this.handlers = new HashMap<>();
+        this.primeTable = primeTable;
+        this.dataCache = dataCache;
+        this.computePool = computePool;
         registerHandlers();
     }
     
     private void registerHandlers() {
-        registerHandler(new PrimeTestTask());
-        registerHandler(new PrimeRangeTask());
-        registerHandler(new FactorizeTask());
-        registerHandler(new HashStressTask());
-        registerHandler(new SortRandomTask());
-        registerHandler(new PiEstimationTask());
-        registerHandler(new MatrixMultTask());
+        registerHandler(new PrimeTestTask(primeTable));
+        registerHandler(new PrimeTestBatchTask(computePool));
+        registerHandler(new PrimeRangeTask(primeTable, computePool));
+        registerHandler(new FactorizeTask(primeTable, computePool));
+        registerHandler(new HashStressTask(computePool));
+        registerHandler(new SortRandomTask(computePool));
+        registerHandler(new PiEstimationTask(computePool));
+        registerHandler(new MatrixMultTask(computePool));
+        registerHandler(new PiDigitsTask(computePool));
+        registerHandler(new PrimeCountTask(computePool));
     }
     
     private void registerHandler(TaskHandler handler) {
@@ -34,6 +70,15 @@ public class TaskExecutor {
     }
     
     public Result executeTask(Task task) {
+        return executeTask(task, null);
+    }
+    
+    /**
+     * Ejecuta la tarea en streaming si el handler lo soporta y chunks no es null:
+     * los datos parciales se entregan a chunks y el Result final lleva el resumen.
+     * Con handlers sin streaming se comporta como executeTask(task).
+     */
+    public Result executeTask(Task task, Consumer<Object> chunks) {
         TaskHandler handler = handlers.get(task.getTaskType());
         
         if (handler == null) {
@@ -44,11 +89,68 @@ public class TaskExecutor {
             return result;
         }
         
-        return handler.execute(task);
+        try {
+            resolveData(task);
+        } catch (IllegalStateException e) {
+            Result result = new Result();
+            result.setTaskId(task.getTaskId());
+            result.setSuccess(false);
+            result.setError(e.getMessage());
+            return result;
+        }
+        
+        computePool.taskStarted();
+        try {
+            if (chunks != null && handler instanceof StreamingTaskHandler) {
+                return ((StreamingTaskHandler) handler).execute(task, chunks);
+            }
+            return handler.execute(task);
+        } finally {
+            computePool.taskFinished();
+        }
+    }
+    
+    /**
+     * Resuelve las referencias a datos de la tarea contra la caché: un adjunto que
+     * viene en la tarea se guarda con su handle y uno que no viene se toma de la caché.
+     * Después la tarea ya no tiene referencias, así que llamarlo otra vez no hace nada.
+     * El Worker lo llama al recibir la tarea para que las tareas que siguen en la
+     * conexión vean los datos aunque se ejecuten antes.
+     *
+     * @throws IllegalStateException si un handle referenciado no está en la caché
+     */
+    public void resolveData(Task task) {
+        for (Map.Entry<String, String> ref : task.getDataRefs().entrySet()) {
+            String name = ref.getKey();
+            String handle = ref.getValue();
+            Attachment inline = task.getAttachment(name);
+            Attachment data = inline != null ? dataCache.put(handle, inline) : dataCache.get(handle);
+            if (data == null) {
+                throw new IllegalStateException("Dato no disponible en caché: " + handle);
+            }
+            task.addAttachment(name, data);
+        }
+        task.clearDataRefs();
     }
     
     public boolean supportsTaskType(String taskType) {
         return handlers.containsKey(taskType);
     }
+    
+    public PrimeTable getPrimeTable() {
+        return primeTable;
+    }
+    
+    public DataCache getDataCache() {
+        return dataCache;
+    }
+    
+    public ComputePool getComputePool() {
+        return computePool;
+    }
+    
+    public void shutdown() {
+        computePool.shutdown();
+    }
 }
 
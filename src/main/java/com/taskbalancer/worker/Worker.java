@@ -3,46 +3,101 @@ package com.taskbalancer.worker;
 import com.taskbalancer.common.*;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * Worker que se conecta al Master y ejecuta tareas en paralelo.
+ * Con la propiedad taskbalancer.worker.prefetch = N anuncia N huecos más que hilos:
+ * el Master le envía hasta N tareas de más, que esperan en la cola local del pool
+ * y empiezan en cuanto termina otra, sin esperar el viaje de ida y vuelta al Master.
+ * Si el Master reparte en modo PULL, el worker pide con PULL exactamente los huecos
+ * libres de cada pool que aún no ha pedido, al registrarse y cada vez que termina una tarea.
+ * Las tareas que esperan en la cola local pueden cederse al Master (STEAL n → STOLEN)
+ * para que las ejecuten workers ociosos.
+ * Cada tipo de tarea se ejecuta en el pool de su clase de coste (WorkerPools), con
+ * huecos que se anuncian al Master por pool.
+ * Con taskbalancer.virtualThreads=true los resultados se vuelcan, comprimen y envían
+ * desde hilos virtuales, y los hilos de cálculo de los pools quedan libres en cuanto
+ * termina el handler.
+ * Con taskbalancer.worker.adaptive=true cada pool ajusta sus hilos en marcha con un
+ * ConcurrencyLimiter (latencia de las tareas y uso de CPU) y el worker anuncia al Master
+ * los nuevos huecos con un mensaje CAPACITY.
  */
 public class Worker {
 
+    public static final String PREFETCH_PROPERTY = "taskbalancer.worker.prefetch";
+    public static final String ADAPTIVE_PROPERTY = "taskbalancer.worker.adaptive";
+
+    private static final long ADAPT_INTERVAL_MS = 1000;
+
     private final String workerId;
     private final String masterHost;
     private final int masterPort;
-    private final int maxConcurrentTasks;
 
     private Socket socket;
-    private ObjectOutputStream out;
+    private MessageOutput out;
     private ObjectInputStream in;
 
-    private final ExecutorService taskExecutor;
+    private final WorkerPools pools;
     private final ScheduledExecutorService heartbeatExecutor;
     private final TaskExecutor executor;
+    // Envío de resultados en hilos virtuales, o null para enviarlos desde el hilo de la tarea
+    private final ExecutorService resultSender;
+    // Límite adaptativo de cada pool; vacío si el modo adaptativo no está activo
+    private final Map<String, ConcurrencyLimiter> limiters = new HashMap<>();
 
     private final AtomicInteger currentTasks;
+    // Tareas recibidas que aún no han empezado; la que se saca de aquí (al empezar o al cederse) es de quien la saca
+    private final Deque<Task> pendingTasks = new ConcurrentLinkedDeque<>();
     private final AtomicBoolean running;
 
+    private final CompressionStats compressionStats;
+    private volatile String compression;
+
+    private volatile boolean pullMode;
+    // Tareas pedidas con PULL que aún no han llegado, por pool (protegido por requestLock)
+    private final Map<String, Integer> requested = new HashMap<>();
+    private final Object requestLock = new Object();
+
     public Worker(String workerId, String masterHost, int masterPort, int maxConcurrentTasks) {
+        this(workerId, masterHost, masterPort, maxConcurrentTasks, Integer.getInteger(PREFETCH_PROPERTY, 0));
+    }
+
+    public Worker(String workerId, String masterHost, int masterPort, int maxConcurrentTasks, int prefetch) {
+        if (prefetch < 0) {
+            throw new IllegalArgumentException("'prefetch' no puede ser negativo: " + prefetch);
+        }
         this.workerId = workerId;
         this.masterHost = masterHost;
         this.masterPort = masterPort;
-        this.maxConcurrentTasks = maxConcurrentTasks;
 
-        this.taskExecutor = Executors.newFixedThreadPool(maxConcurrentTasks);
+        // Pools fijos con la cola visible: las tareas precargadas esperan ahí a un hilo libre
+        this.pools = new WorkerPools(maxConcurrentTasks, prefetch, System.getProperty(WorkerPools.POOLS_PROPERTY));
         this.heartbeatExecutor = Executors.newScheduledThreadPool(1);
         this.executor = new TaskExecutor();
+        this.executor.getDataCache().setEvictionListener(this::reportEviction);
+        this.resultSender = VirtualThreads.isEnabled() ? VirtualThreads.perTaskExecutor("worker-result-", true) : null;
+        if (Boolean.getBoolean(ADAPTIVE_PROPERTY)) {
+            // Entre 1 hilo y el doble de los configurados para el pool
+            for (String pool : pools.getPoolNames()) {
+                int threads = pools.getThreads(pool);
+                limiters.put(pool, new ConcurrencyLimiter(threads, 1, 2 * threads));
+            }
+        }
 
         this.currentTasks = new AtomicInteger(0);
         this.running = new AtomicBoolean(false);
+        this.compressionStats = new CompressionStats();
     }
 
     public void start() {
@@ -52,6 +107,9 @@ public class Worker {
             running.set(true);
 
             startHeartbeat();
+            if (!limiters.isEmpty()) {
+                startConcurrencyControl();
+            }
 
             System.out.println("[Worker " + workerId + "] Conectado al Master en " +
                     masterHost + ":" + masterPort);
@@ -67,9 +125,10 @@ public class Worker {
     private void connectToMaster() throws IOException {
         socket = new Socket(masterHost, masterPort);
         try {
-            out = new ObjectOutputStream(socket.getOutputStream());
-            out.flush();
+            ObjectOutputStream stream = new ObjectOutputStream(socket.getOutputStream());
+            stream.flush();
             in = new ObjectInputStream(socket.getInputStream());
+            out = new MessageOutput(stream);
         } catch (IOException e) {
             try {
                 socket.close();
@@ -82,10 +141,15 @@ public class Worker {
     private void registerWithMaster() throws IOException {
         Map<String, Object> registrationData = new HashMap<>();
         registrationData.put("workerId", workerId);
-        registrationData.put("maxTasks", maxConcurrentTasks);
+        // Huecos anunciados: hilos de ejecución más tareas precargadas en cola, en total y por pool
+        registrationData.put("maxTasks", pools.getTotalSlots());
+        registrationData.put("prefetch", pools.getTotalSlots() - pools.getThreads());
+        registrationData.put("poolSlots", new HashMap<>(pools.getSlots()));
+        registrationData.put("typePools", new HashMap<>(pools.getTypePools()));
         registrationData.put("currentTasks", 0);
 
         Message registerMsg = new Message("WORKER_REGISTER", registrationData);
+        PayloadCodec.advertise(registerMsg);
         sendMessage(registerMsg);
 
         System.out.println("[Worker " + workerId + "] Registro enviado al Master");
@@ -97,7 +161,9 @@ public class Worker {
                 Map<String, Object> heartbeatData = new HashMap<>();
                 heartbeatData.put("workerId", workerId);
                 heartbeatData.put("currentTasks", currentTasks.get());
-                heartbeatData.put("maxTasks", maxConcurrentTasks);
+                heartbeatData.put("maxTasks", pools.getTotalSlots());
+                heartbeatData.put("poolTasks", pools.getTaskCounts());
+                heartbeatData.put("poolSlots", new HashMap<>(pools.getSlots()));
 
                 Message heartbeat = new Message("HEARTBEAT", heartbeatData);
                 sendMessage(heartbeat);
@@ -109,12 +175,58 @@ public class Worker {
         }, 5, 5, TimeUnit.SECONDS);
     }
 
+    private void startConcurrencyControl() {
+        heartbeatExecutor.scheduleAtFixedRate(() -> {
+            try {
+                adjustConcurrency();
+            } catch (Exception e) {
+                System.err.println("[Worker " + workerId + "] Error ajustando concurrencia: " +
+                        e.getMessage());
+            }
+        }, ADAPT_INTERVAL_MS, ADAPT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Cierra la ventana de cada limitador y, si algún pool cambia de hilos, anuncia los nuevos huecos
+    private void adjustConcurrency() {
+        double cpuLoad = systemCpuLoad();
+        boolean changed = false;
+
+        for (Map.Entry<String, ConcurrencyLimiter> entry : limiters.entrySet()) {
+            String pool = entry.getKey();
+            int before = pools.getThreads(pool);
+            int after = entry.getValue().update(cpuLoad);
+            if (after != before) {
+                pools.setThreads(pool, after);
+                changed = true;
+                System.out.println("[Worker " + workerId + "] Concurrencia del pool " + pool + ": " +
+                        before + " -> " + after + " hilos (CPU " + Math.round(Math.max(0, cpuLoad) * 100) + "%)");
+            }
+        }
+
+        if (changed) {
+            Map<String, Object> capacity = new HashMap<>();
+            capacity.put("maxTasks", pools.getTotalSlots());
+            capacity.put("poolSlots", new HashMap<>(pools.getSlots()));
+            sendMessage(new Message("CAPACITY", capacity));
+            requestWork();
+        }
+    }
+
+    // Uso de CPU del sistema en [0, 1], o negativo si la JVM no lo expone
+    private static double systemCpuLoad() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getCpuLoad();
+        }
+        return -1;
+    }
+
     private void listenForTasks() throws IOException, ClassNotFoundException {
         try {
             while (running.get()) {
                 Object obj = in.readObject();
                 if (obj instanceof Message) {
-                    processMessage((Message) obj);
+                    processMessage(PayloadCodec.decode((Message) obj, compressionStats));
                 }
             }
         } catch (EOFException e) {
@@ -132,6 +244,18 @@ public class Worker {
 
             if ("TASK".equals(type)) {
                 handleTaskMessage(message);
+            } else if ("STEAL".equals(type)) {
+                cedeTasks(((Number) message.getPayload()).intValue());
+            } else if ("ACK".equals(type)) {
+                compression = PayloadCodec.accepted(message);
+                if (compression != null) {
+                    System.out.println("[Worker " + workerId + "] Compresión negociada: " + compression);
+                }
+                if ("PULL".equals(message.getHeader(Message.DISTRIBUTION))) {
+                    System.out.println("[Worker " + workerId + "] Reparto PULL: se piden tareas al quedar huecos libres");
+                    pullMode = true;
+                    requestWork();
+                }
             } else if ("SHUTDOWN".equals(type)) {
                 System.out.println("[Worker " + workerId + "] Recibido comando de apagado");
                 shutdown();
@@ -147,36 +271,68 @@ public class Worker {
         try {
             Task task = (Task) message.getPayload();
 
+            int queued = pools.getQueuedTasks();
             System.out.println("[Worker " + workerId + "] Tarea recibida: " + task.getTaskId() +
-                    " (" + task.getTaskType() + ")");
+                    " (" + task.getTaskType() + ")" + (queued > 0 ? " [en cola local: " + queued + "]" : ""));
 
-            currentTasks.incrementAndGet();
+            // En el hilo lector, en orden de llegada: la tarea que sube un dato lo deja
+            // en caché antes de que se resuelvan las siguientes que lo referencian
+            try {
+                executor.resolveData(task);
+            } catch (IllegalStateException e) {
+                Result errorResult = new Result();
+                errorResult.setTaskId(task.getTaskId());
+                errorResult.setSuccess(false);
+                errorResult.setError(e.getMessage());
+                errorResult.setWorkerId(workerId);
+                taskArrived(task, false);
+                sendResult(errorResult);
+                requestWork();
+                return;
+            }
+
+            taskArrived(task, true);
+            pendingTasks.addLast(task);
 
-            taskExecutor.submit(() -> {
+            pools.executorFor(task.getTaskType()).submit(() -> {
+                // Cedida a otro worker por work stealing antes de empezar
+                if (!pendingTasks.remove(task)) {
+                    return;
+                }
+                String pool = pools.poolFor(task.getTaskType());
+                int inFlight = pools.getActiveThreads(pool);
+                long start = System.nanoTime();
+                Result result;
                 try {
-                    Result result = executor.executeTask(task);
+                    result = executor.executeTask(task, chunkSenderFor(task));
                     result.setWorkerId(workerId);
 
+                    ConcurrencyLimiter limiter = limiters.get(pool);
+                    if (limiter != null && result.isSuccess()) {
+                        limiter.record(task.getTaskType(), System.nanoTime() - start, inFlight);
+                    }
+
                     System.out.println("[Worker " + workerId + "] Tarea completada: " +
                             task.getTaskId() + " en " + result.getExecutionTimeMs() + "ms");
 
-                    sendResult(result);
-
                 } catch (Exception e) {
                     System.err.println("[Worker " + workerId + "] Error ejecutando tarea: " +
                             e.getMessage());
 
-                    Result errorResult = new Result();
-                    errorResult.setTaskId(task.getTaskId());
-                    errorResult.setSuccess(false);
-                    errorResult.setError(e.getMessage());
-                    errorResult.setWorkerId(workerId);
-
-                    sendResult(errorResult);
+                    result = new Result();
+                    result.setTaskId(task.getTaskId());
+                    result.setSuccess(false);
+                    result.setError(e.getMessage());
+                    result.setWorkerId(workerId);
+                }
 
-                } finally {
+                // El hueco se libera cuando el RESULT ya está escrito, no antes: así el
+                // heartbeat y los PULL nunca anuncian huecos cuyo resultado sigue pendiente
+                deliverResult(result, () -> {
+                    pools.taskFinished(task.getTaskType());
                     currentTasks.decrementAndGet();
-                }
+                    requestWork();
+                });
             });
 
         } catch (Exception e) {
@@ -184,20 +340,142 @@ public class Worker {
         }
     }
 
+    // Responde a un STEAL con hasta n tareas sin empezar, las últimas en llegar
+    private void cedeTasks(int n) {
+        List<Task> ceded = new ArrayList<>();
+        for (Task task; ceded.size() < n && (task = pendingTasks.pollLast()) != null; ) {
+            ceded.add(task);
+            pools.taskFinished(task.getTaskType());
+            currentTasks.decrementAndGet();
+        }
+        if (!ceded.isEmpty()) {
+            System.out.println("[Worker " + workerId + "] Cedidas " + ceded.size() + " tareas por work stealing");
+        }
+        sendMessage(new Message("STOLEN", ceded));
+        // En PULL los huecos que quedan libres se vuelven a pedir
+        requestWork();
+    }
+
+    // Una tarea recibida deja de estar pedida y, si se va a ejecutar, ocupa un hueco;
+    // ambas cosas a la vez para que requestWork no cuente ese hueco como libre
+    private void taskArrived(Task task, boolean accepted) {
+        synchronized (requestLock) {
+            if (pullMode) {
+                requested.computeIfPresent(pools.poolFor(task.getTaskType()), (pool, n) -> Math.max(0, n - 1));
+            }
+            if (accepted) {
+                pools.taskStarted(task.getTaskType());
+                currentTasks.incrementAndGet();
+            }
+        }
+    }
+
+    // En modo PULL pide al Master los huecos libres de cada pool que aún no estén pedidos
+    private void requestWork() {
+        if (!pullMode || !running.get()) {
+            return;
+        }
+        HashMap<String, Integer> credits = new HashMap<>();
+        synchronized (requestLock) {
+            Map<String, Integer> counts = pools.getTaskCounts();
+            for (Map.Entry<String, Integer> slots : pools.getSlots().entrySet()) {
+                String pool = slots.getKey();
+                int n = slots.getValue() - counts.get(pool) - requested.getOrDefault(pool, 0);
+                if (n > 0) {
+                    credits.put(pool, n);
+                    requested.merge(pool, n, Integer::sum);
+                }
+            }
+        }
+        if (!credits.isEmpty()) {
+            sendMessage(new Message("PULL", credits));
+        }
+    }
+
+    // Destino de trozos para tareas que piden streaming (parámetro 'stream'), o null
+    private Consumer<Object> chunkSenderFor(Task task) {
+        if (!Boolean.TRUE.equals(task.getParameters().get("stream"))) {
+            return null;
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        return data -> sendMessage(new Message("RESULT_CHUNK",
+                new ResultChunk(task.getTaskId(), sequence.getAndIncrement(), data)));
+    }
+
+    // Avisa al Master de que este worker ya no tiene el dato para que no le enrute más tareas por él
+    private void reportEviction(String handle) {
+        System.out.println("[Worker " + workerId + "] Dato expulsado de la caché: " + handle);
+        sendMessage(new Message("DATA_EVICTED", handle));
+    }
+
+    // Con hilos virtuales el volcado, la compresión y la escritura no ocupan el hilo de cálculo.
+    // afterSend se ejecuta cuando el resultado ya se ha enviado (o ha fallado el envío).
+    private void deliverResult(Result result, Runnable afterSend) {
+        Runnable send = () -> {
+            try {
+                sendResult(result);
+            } finally {
+                afterSend.run();
+            }
+        };
+        if (resultSender == null) {
+            send.run();
+            return;
+        }
+        try {
+            resultSender.execute(send);
+        } catch (RejectedExecutionException e) {
+            send.run();
+        }
+    }
+
     private void sendResult(Result result) {
+        ResultSpill.Spill spill = null;
+        try {
+            spill = ResultSpill.spillIfLarge(result.getData(), ResultSpill.getThreshold());
+        } catch (IOException e) {
+            System.err.println("[Worker " + workerId + "] Error volcando resultado, se envía en memoria: " +
+                    e.getMessage());
+        }
+
+        if (spill != null) {
+            // Los datos ya están en disco: soltar la referencia antes de enviar los frames
+            result.setData(spill.descriptor());
+            try (ResultSpill.Spill frames = spill) {
+                System.out.println("[Worker " + workerId + "] Resultado volcado a disco: " +
+                        result.getTaskId() + " (" + frames.getLength() + " bytes)");
+                frames.forEachFrame(result.getTaskId(),
+                        frame -> sendMessage(new Message("RESULT_FRAME", frame)));
+            } catch (IOException e) {
+                result.setSuccess(false);
+                result.setData(null);
+                result.setError("Error enviando resultado volcado: " + e.getMessage());
+            }
+        }
+
         Message resultMessage = new Message("RESULT", result);
         sendMessage(resultMessage);
     }
 
-    private synchronized void sendMessage(Message message) {
+    private void sendMessage(Message message) {
+        // Se comprime fuera del lock para no frenar los envíos de otras tareas.
+        // Los heartbeats son pequeños: no merece la pena medirlos.
+        if (compression != null && !"HEARTBEAT".equals(message.getType())) {
+            try {
+                message = PayloadCodec.encode(message, compressionStats);
+            } catch (IOException e) {
+                System.err.println("[Worker " + workerId + "] Error comprimiendo mensaje, se envía sin comprimir: " +
+                        e.getMessage());
+            }
+        }
+        writeMessage(message);
+    }
+
+    private void writeMessage(Message message) {
         if (out != null) {
             try {
-                out.writeObject(message);
-                out.flush();
                 // Solo reset si es necesario, puede causar problemas
-                if (!"HEARTBEAT".equals(message.getType())) {
-                    out.reset();
-                }
+                out.send(message, !"HEARTBEAT".equals(message.getType()));
             } catch (IOException e) {
                 System.err.println("[Worker " + workerId + "] Error enviando mensaje: " +
                         e.getMessage());
@@ -215,14 +493,16 @@ public class Worker {
         System.out.println("[Worker " + workerId + "] Apagando...");
 
         heartbeatExecutor.shutdown();
-        taskExecutor.shutdown();
-
-        try {
-            if (!taskExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
-                taskExecutor.shutdownNow();
+        pools.shutdown();
+        pools.awaitTermination(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        if (resultSender != null) {
+            resultSender.shutdown();
+            try {
+                resultSender.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        } catch (InterruptedException e) {
-            taskExecutor.shutdownNow();
         }
 
         try {
@@ -237,6 +517,8 @@ public class Worker {
                     e.getMessage());
         }
 
+        System.out.println("[Worker " + workerId + "] " + compressionStats);
+        System.out.println("[Worker " + workerId + "] " + executor.getDataCache());
         System.out.println("[Worker " + workerId + "] Apagado completado");
     }
 
@@ -0,0 +1,208 @@
+package com.taskbalancer.worker;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pools de ejecución aislados (bulkheads) del worker, uno por clase de coste.
+ * Con la propiedad taskbalancer.worker.pools, p. ej.
+ * {@code heavy:1:HASH_STRESS,MATRIX_MULT,PI_DIGITS;light:2:PRIME_TEST,PRIME_TEST_BATCH},
+ * cada clase tiene sus propios hilos y los tipos no listados van al pool "default".
+ * Así unas pocas tareas pesadas no dejan sin hilo a las baratas.
+ * Lleva la cuenta de tareas por pool para informar al Master de cada hueco por separado.
+ * Un cuarto campo {@code virtual} (p. ej. {@code io:32:SORT_RANDOM:virtual}) hace que el
+ * pool use hilos virtuales: sigue limitado a sus hilos, pero una tarea bloqueada en E/S
+ * no ocupa un hilo del sistema. Los pools de cálculo deben seguir siendo de plataforma.
+ * Los hilos de cada pool pueden cambiarse en marcha (setThreads), y con ellos sus huecos.
+ */
+public class WorkerPools {
+
+    public static final String POOLS_PROPERTY = "taskbalancer.worker.pools";
+    public static final String DEFAULT_POOL = "default";
+    public static final String VIRTUAL_FLAG = "virtual";
+
+    private final Map<String, ThreadPoolExecutor> executors = new LinkedHashMap<>();
+    private final Map<String, Integer> slots = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> tasks = new HashMap<>();
+    private final Map<String, String> typePools = new HashMap<>();
+    private final Set<String> virtualPools = new HashSet<>();
+    private final int prefetch;
+
+    /**
+     * @param defaultThreads hilos del pool "default"
+     * @param prefetch       huecos de cola local por pool además de sus hilos
+     * @param spec           definición de pools (formato de taskbalancer.worker.pools), o null
+     */
+    public WorkerPools(int defaultThreads, int prefetch, String spec) {
+        this.prefetch = prefetch;
+        addPool(DEFAULT_POOL, defaultThreads, prefetch, false);
+        if (spec == null || spec.isBlank()) {
+            return;
+        }
+        for (String poolSpec : spec.split(";")) {
+            String[] parts = poolSpec.trim().split(":");
+            boolean virtual = parts.length == 4 && VIRTUAL_FLAG.equalsIgnoreCase(parts[3].trim());
+            if (parts.length != 3 && !virtual) {
+                throw new IllegalArgumentException("Pool inválido (nombre:hilos:TIPO,...[:virtual]): " + poolSpec);
+            }
+            String name = parts[0].trim();
+            if (executors.containsKey(name)) {
+                throw new IllegalArgumentException("Pool repetido: " + name);
+            }
+            addPool(name, Integer.parseInt(parts[1].trim()), prefetch, virtual);
+            for (String type : parts[2].split(",")) {
+                typePools.put(type.trim().toUpperCase(Locale.ROOT), name);
+            }
+        }
+    }
+
+    private void addPool(String name, int threads, int prefetch, boolean virtual) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("El pool " + name + " necesita al menos un hilo: " + threads);
+        }
+        ThreadFactory factory = virtual
+                ? Thread.ofVirtual().name("pool-" + name + "-", 0).factory()
+                : Executors.defaultThreadFactory();
+        executors.put(name, new ThreadPoolExecutor(threads, threads,
+                0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory));
+        if (virtual) {
+            virtualPools.add(name);
+        }
+        slots.put(name, threads + prefetch);
+        tasks.put(name, new AtomicInteger());
+    }
+
+    public String poolFor(String taskType) {
+        return typePools.getOrDefault(taskType, DEFAULT_POOL);
+    }
+
+    public ExecutorService executorFor(String taskType) {
+        return executors.get(poolFor(taskType));
+    }
+
+    public void taskStarted(String taskType) {
+        tasks.get(poolFor(taskType)).incrementAndGet();
+    }
+
+    public void taskFinished(String taskType) {
+        tasks.get(poolFor(taskType)).decrementAndGet();
+    }
+
+    public boolean isVirtual(String pool) {
+        return virtualPools.contains(pool);
+    }
+
+    /** Huecos anunciados por pool (hilos + precarga). */
+    public synchronized Map<String, Integer> getSlots() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(slots));
+    }
+
+    /** Nombres de los pools, "default" el primero. */
+    public Set<String> getPoolNames() {
+        return Collections.unmodifiableSet(executors.keySet());
+    }
+
+    public int getThreads(String pool) {
+        return executors.get(pool).getCorePoolSize();
+    }
+
+    /** Hilos del pool ejecutando una tarea en este momento. */
+    public int getActiveThreads(String pool) {
+        return executors.get(pool).getActiveCount();
+    }
+
+    /**
+     * Cambia los hilos del pool y sus huecos. Al reducir, los hilos sobrantes terminan
+     * cuando acaban su tarea actual; las tareas ya aceptadas esperan en la cola.
+     */
+    public synchronized void setThreads(String pool, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("El pool " + pool + " necesita al menos un hilo: " + threads);
+        }
+        ThreadPoolExecutor executor = executors.get(pool);
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        slots.put(pool, threads + prefetch);
+    }
+
+    /** Asignación tipo de tarea → pool (los tipos ausentes van a "default"). */
+    public Map<String, String> getTypePools() {
+        return Collections.unmodifiableMap(typePools);
+    }
+
+    /** Tareas en cada pool (en ejecución o en su cola). */
+    public Map<String, Integer> getTaskCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String name : executors.keySet()) {
+            counts.put(name, tasks.get(name).get());
+        }
+        return counts;
+    }
+
+    public int getThreads() {
+        int threads = 0;
+        for (ThreadPoolExecutor executor : executors.values()) {
+            threads += executor.getCorePoolSize();
+        }
+        return threads;
+    }
+
+    public synchronized int getTotalSlots() {
+        int total = 0;
+        for (int n : slots.values()) {
+            total += n;
+        }
+        return total;
+    }
+
+    /** Tareas esperando en las colas locales de todos los pools. */
+    public int getQueuedTasks() {
+        int queued = 0;
+        for (ThreadPoolExecutor executor : executors.values()) {
+            queued += executor.getQueue().size();
+        }
+        return queued;
+    }
+
+    public void shutdown() {
+        executors.values().forEach(ExecutorService::shutdown);
+    }
+
+    /** Espera a que terminen todos los pools; los que no lo hacen a tiempo se cortan. */
+    public void awaitTermination(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ThreadPoolExecutor executor : executors.values()) {
+            try {
+                if (!executor.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "WorkerPools{slots=" + getSlots() + ", tipos=" + typePools +
+                (virtualPools.isEmpty() ? "" : ", virtuales=" + virtualPools) + '}';
+    }
+}
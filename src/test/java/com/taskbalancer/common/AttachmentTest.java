@@ -0,0 +1,93 @@
+package com.taskbalancer.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttachmentTest {
+
+	private static Task roundTrip(Task task) throws Exception {
+		return (Task) SerializationUtils.deserialize(SerializationUtils.serialize(task));
+	}
+
+	@Test
+	void adjuntosSobrevivenLaSerializacionDeLaTarea() throws Exception {
+		Task task = new Task("t1", "SORT_RANDOM", new HashMap<>());
+		task.addAttachment("ints", Attachment.ofInts(new int[]{3, -1, Integer.MAX_VALUE}));
+		task.addAttachment("longs", Attachment.ofLongs(new long[]{Long.MIN_VALUE, 0, 7}));
+		task.addAttachment("m", Attachment.ofMatrix(new double[]{1.5, 2, 3, 4, 5, 6}, 2, 3));
+
+		Task copy = roundTrip(task);
+
+		assertArrayEquals(new int[]{3, -1, Integer.MAX_VALUE}, copy.getAttachment("ints").toIntArray());
+		assertArrayEquals(new long[]{Long.MIN_VALUE, 0, 7}, copy.getAttachment("longs").toLongArray());
+		Attachment m = copy.getAttachment("m");
+		assertEquals(Attachment.Type.DOUBLE, m.getType());
+		assertArrayEquals(new int[]{2, 3}, m.getShape());
+		assertArrayEquals(new double[]{1.5, 2, 3, 4, 5, 6}, m.toDoubleArray());
+		assertNull(copy.getAttachment("otro"));
+	}
+
+	@Test
+	void tareaSinAdjuntosDevuelveMapaVacio() throws Exception {
+		Task copy = roundTrip(new Task("t2", "PRIME_TEST", new HashMap<>()));
+		assertTrue(copy.getAttachments().isEmpty());
+	}
+
+	@Test
+	void serializadoOcupaCasiLoMismoQueLosBytesCrudos() throws Exception {
+		int n = 100000;
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = i * 0.5;
+		}
+		int raw = n * Double.BYTES;
+
+		byte[] serialized = SerializationUtils.serialize(Attachment.ofDoubles(values));
+
+		assertTrue(serialized.length >= raw);
+		// Solo el framing de bloques de ObjectOutputStream (~0,5%), no 8+ bytes de cabecera por Double
+		assertTrue(serialized.length < raw + raw / 100, "serializado: " + serialized.length + " bytes");
+	}
+
+	@Test
+	void vistasSonDeSoloLecturaYDelTipoCorrecto() {
+		Attachment a = Attachment.ofInts(new int[]{1, 2, 3});
+
+		assertEquals(3, a.length());
+		assertEquals(12, a.byteSize());
+		assertEquals(2, a.asIntBuffer().get(1));
+		assertTrue(a.asByteBuffer().isReadOnly());
+		assertThrows(IllegalStateException.class, a::asDoubleBuffer);
+	}
+
+	@Test
+	void wrapDeBufferDirectoSinCopiaYConForma() throws Exception {
+		ByteBuffer direct = ByteBuffer.allocateDirect(4 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		for (long v = 1; v <= 4; v++) {
+			direct.putLong(v * 10);
+		}
+		direct.flip();
+
+		Attachment a = Attachment.wrap(Attachment.Type.LONG, direct, 2, 2);
+		direct.putLong(0, 99);
+
+		assertEquals(99, a.asLongBuffer().get(0));
+		Attachment copy = (Attachment) SerializationUtils.deserialize(SerializationUtils.serialize(a));
+		assertArrayEquals(new long[]{99, 20, 30, 40}, copy.toLongArray());
+		assertArrayEquals(new int[]{2, 2}, copy.getShape());
+	}
+
+	@Test
+	void formaIncompatibleSeRechaza() {
+		assertThrows(IllegalArgumentException.class, () -> Attachment.ofMatrix(new double[5], 2, 3));
+		assertThrows(IllegalArgumentException.class,
+				() -> Attachment.wrap(Attachment.Type.INT, ByteBuffer.allocate(12), 2, 2));
+		assertThrows(IllegalArgumentException.class,
+				() -> Attachment.wrap(Attachment.Type.INT, ByteBuffer.allocate(7)));
+	}
+}
@@ -0,0 +1,83 @@
+package com.taskbalancer.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongSequenceTest {
+
+	private static LongSequence roundTrip(LongSequence seq) throws Exception {
+		Result result = new Result("t1", true, seq, null);
+		Result copy = (Result) SerializationUtils.deserialize(SerializationUtils.serialize(result));
+		return (LongSequence) copy.getData();
+	}
+
+	@Test
+	void secuenciaDensaViajaComoBitset() throws Exception {
+		long[] values = new long[50_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 1_000_000L + 3L * i;
+		}
+		LongSequence seq = LongSequence.of(values);
+
+		assertEquals(LongSequence.Encoding.BITSET, seq.getEncoding());
+		assertTrue(seq.getEncodedSize() < values.length);
+
+		LongSequence copy = roundTrip(seq);
+		assertArrayEquals(values, copy.toLongArray());
+	}
+
+	@Test
+	void secuenciaDispersaViajaComoDeltaVarint() throws Exception {
+		long[] values = {-5, 0, 0, 1L << 40, (1L << 40) + 1, Long.MAX_VALUE};
+		LongSequence seq = LongSequence.of(values);
+
+		assertEquals(LongSequence.Encoding.DELTA_VARINT, seq.getEncoding());
+		assertEquals(seq, roundTrip(seq));
+
+		// El rango no cabe en un long: la diferencia se recupera por aritmética modular
+		LongSequence wide = LongSequence.of(Long.MIN_VALUE, -1, Long.MAX_VALUE);
+		assertEquals(List.of(Long.MIN_VALUE, -1L, Long.MAX_VALUE), roundTrip(wide));
+	}
+
+	@Test
+	void secuenciaDesordenadaViajaEnCrudo() throws Exception {
+		SplittableRandom random = new SplittableRandom(7);
+		long[] values = random.longs(1000).toArray();
+		LongSequence seq = LongSequence.of(values);
+
+		assertEquals(LongSequence.Encoding.RAW, seq.getEncoding());
+		assertArrayEquals(values, roundTrip(seq).toLongArray());
+		assertEquals(0, roundTrip(LongSequence.of()).size());
+	}
+
+	@Test
+	void seComportaComoListaDeLongs() throws Exception {
+		List<Long> expected = new ArrayList<>(List.of(2L, 3L, 5L, 7L));
+		LongSequence seq = LongSequence.copyOf(expected);
+
+		assertEquals(expected, seq);
+		assertEquals(expected, roundTrip(seq));
+		assertEquals(expected.hashCode(), roundTrip(seq).hashCode());
+		assertEquals(7L, roundTrip(seq).getLong(3));
+		assertThrows(IndexOutOfBoundsException.class, () -> seq.getLong(4));
+	}
+
+	@Test
+	void ocupaMuchoMenosQueUnaListaDeBoxeados() throws Exception {
+		List<Long> boxed = new ArrayList<>();
+		long[] values = new long[100_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 10_000_000L + 17L * i + (i % 5);
+			boxed.add(values[i]);
+		}
+
+		int compact = SerializationUtils.serialize(LongSequence.of(values)).length;
+		int classic = SerializationUtils.serialize(boxed).length;
+		assertTrue(compact * 10 < classic, compact + " vs " + classic);
+	}
+}
@@ -0,0 +1,57 @@
+package com.taskbalancer.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageOutputTest {
+
+	@Test
+	void escriturasConcurrentesDesdeHilosVirtualesNoSeMezclan() throws Exception {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MessageOutput output = new MessageOutput(new ObjectOutputStream(bytes));
+		int messages = 200;
+
+		ExecutorService executor = VirtualThreads.perTaskExecutor("test-", true);
+		for (int i = 0; i < messages; i++) {
+			int n = i;
+			executor.submit(() -> {
+				output.send(new Message("RESULT", "resultado-" + n), n % 2 == 0);
+				return null;
+			});
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		Set<Object> payloads = new HashSet<>();
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			for (int i = 0; i < messages; i++) {
+				Message message = (Message) in.readObject();
+				assertEquals("RESULT", message.getType());
+				payloads.add(message.getPayload());
+			}
+		}
+		assertEquals(messages, payloads.size());
+	}
+
+	@Test
+	void modoPlataformaUsaHilosNormales() throws Exception {
+		ExecutorService executor = VirtualThreads.perTaskExecutor("test-", false);
+		assertFalse(executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+		executor.shutdown();
+
+		Thread thread = VirtualThreads.start("lector", () -> { }, true);
+		thread.join(5000);
+		assertTrue(thread.isVirtual());
+		assertEquals("lector", thread.getName());
+	}
+}
@@ -0,0 +1,103 @@
+package com.taskbalancer.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PayloadCodecTest {
+
+	private static Message wire(Message message) throws Exception {
+		return (Message) SerializationUtils.deserialize(SerializationUtils.serialize(message));
+	}
+
+	@Test
+	void comprimeResultadosGrandesYLosRestaura() throws Exception {
+		List<Long> data = new ArrayList<>();
+		for (long i = 0; i < 50_000; i++) {
+			data.add(i * 2);
+		}
+		Result result = new Result("t1", true, data, null);
+		Message original = new Message("RESULT", result);
+		original.setHeader("x", "y");
+		CompressionStats stats = new CompressionStats();
+
+		Message encoded = PayloadCodec.encode(original, stats, 1024);
+		assertTrue(encoded.getPayload() instanceof CompressedPayload);
+		assertEquals("y", encoded.getHeader("x"));
+		assertEquals(original.getTimestamp(), encoded.getTimestamp());
+		assertTrue(SerializationUtils.serialize(encoded).length < SerializationUtils.serialize(original).length / 2);
+
+		Message decoded = PayloadCodec.decode(wire(encoded), stats);
+		Result copy = (Result) decoded.getPayload();
+		assertEquals("t1", copy.getTaskId());
+		assertEquals(data, copy.getData());
+
+		assertEquals(1, stats.getCompressedMessages());
+		assertTrue(stats.getBytesSaved() > 0);
+	}
+
+	@Test
+	void noComprimePorDebajoDelUmbralNiSiNoAhorra() throws Exception {
+		CompressionStats stats = new CompressionStats();
+
+		Message small = new Message("RESULT", new Result("t1", true, 42L, null));
+		assertSame(small, PayloadCodec.encode(small, stats, 1024));
+
+		byte[] noise = new byte[64 * 1024];
+		new SplittableRandom(3).nextBytes(noise);
+		Message random = new Message("RESULT", new Result("t2", true, noise, null));
+		assertSame(random, PayloadCodec.encode(random, stats, 1024));
+
+		assertEquals(0, stats.getCompressedMessages());
+		assertEquals(2, stats.getSkippedMessages());
+
+		// Un mensaje sin comprimir pasa por decode sin cambios
+		assertSame(small, PayloadCodec.decode(small, stats));
+	}
+
+	@Test
+	void estimaElTamanoSinSerializar() throws Exception {
+		Map<String, Object> heartbeat = new HashMap<>();
+		heartbeat.put("workerId", "w1");
+		heartbeat.put("currentTasks", 3);
+		heartbeat.put("poolSlots", Map.of("default", 4, "heavy", 1));
+		long estimate = SerializationUtils.estimateSize(heartbeat);
+		assertTrue(estimate >= SerializationUtils.serialize(heartbeat).length, "estimación " + estimate);
+		assertTrue(estimate < PayloadCodec.DEFAULT_THRESHOLD);
+
+		Attachment matrix = Attachment.ofDoubles(new double[1000]);
+		assertTrue(SerializationUtils.estimateSize(matrix) >= 8000);
+		assertTrue(SerializationUtils.estimateSize(new Result("t", true, matrix, null)) >= 8000);
+
+		// Colecciones grandes o tipos desconocidos no se estiman
+		assertEquals(-1, SerializationUtils.estimateSize(new ArrayList<>(Collections.nCopies(1000, 1L))));
+		assertEquals(-1, SerializationUtils.estimateSize(new java.util.BitSet()));
+
+		CompressionStats stats = new CompressionStats();
+		Message pull = new Message("PULL", new HashMap<>(Map.of("default", 2)));
+		assertSame(pull, PayloadCodec.encode(pull, stats, 1024));
+		assertEquals(1, stats.getSkippedMessages());
+	}
+
+	@Test
+	void negociaSoloSiElPeerLoAnuncia() {
+		Message legacy = new Message("WORKER_REGISTER", null);
+		assertNull(PayloadCodec.negotiate(legacy));
+
+		Message modern = new Message("WORKER_REGISTER", null);
+		PayloadCodec.advertise(modern);
+		assertEquals(PayloadCodec.DEFLATE, PayloadCodec.negotiate(modern));
+
+		Message ack = new Message("ACK", "ok");
+		assertNull(PayloadCodec.accepted(ack));
+		ack.setHeader(PayloadCodec.COMPRESSION, PayloadCodec.DEFLATE);
+		assertEquals(PayloadCodec.DEFLATE, PayloadCodec.accepted(ack));
+	}
+}
@@ -0,0 +1,87 @@
+package com.taskbalancer.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultSpillTest {
+
+	@Test
+	void resultadoPequenoNoSeVuelca() throws Exception {
+		assertNull(ResultSpill.spillIfLarge(List.of(1L, 2L, 3L), 1024));
+		assertNull(ResultSpill.spillIfLarge(null, 1024));
+		assertNull(ResultSpill.spillIfLarge(new byte[1 << 20], 0));
+	}
+
+	@Test
+	void decideSinSerializarLosTiposConTamanoConocido() throws Exception {
+		assertNull(ResultSpill.spillIfLarge(Attachment.ofInts(new int[100]), 1024));
+		try (ResultSpill.Spill spill = ResultSpill.spillIfLarge(Attachment.ofInts(new int[1000]), 1024)) {
+			assertNotNull(spill);
+			assertTrue(spill.getLength() > 4000);
+		}
+	}
+
+	@Test
+	void tiposDesconocidosSeMidenContandoBytes() throws Exception {
+		List<Long> values = new ArrayList<>();
+		for (long i = 0; i < 10_000; i++) {
+			values.add(i);
+		}
+		assertNull(ResultSpill.spillIfLarge(values, 1 << 20));
+		try (ResultSpill.Spill spill = ResultSpill.spillIfLarge(values, 1 << 12)) {
+			assertNotNull(spill);
+			assertEquals(SerializationUtils.serialize(values).length, spill.getLength());
+		}
+	}
+
+	@Test
+	void resultadoGrandeViajaEnFramesYSeReconstruye() throws Exception {
+		long[] values = new SplittableRandom(11).longs(400_000).toArray();
+		LongSequence data = LongSequence.of(values);
+
+		ResultSpill.Spill spill = ResultSpill.spillIfLarge(data, 1 << 16);
+		assertNotNull(spill);
+		assertTrue(spill.getLength() > 2L * ResultSpill.FRAME_SIZE);
+
+		List<ResultFrame> frames = new ArrayList<>();
+		try (ResultSpill.Spill s = spill) {
+			s.forEachFrame("t1", frames::add);
+		}
+		assertEquals((spill.getLength() + ResultSpill.FRAME_SIZE - 1) / ResultSpill.FRAME_SIZE, frames.size());
+
+		// Los frames pueden llegar en cualquier orden: se escriben por offset
+		try (ResultSpill.Receiver receiver = new ResultSpill.Receiver()) {
+			for (int i = frames.size() - 1; i >= 0; i--) {
+				Message wire = (Message) SerializationUtils.deserialize(
+						SerializationUtils.serialize(new Message("RESULT_FRAME", frames.get(i))));
+				receiver.accept((ResultFrame) wire.getPayload());
+			}
+			Object restored = receiver.resolve(spill.descriptor());
+			assertArrayEquals(values, ((LongSequence) restored).toLongArray());
+		}
+	}
+
+	@Test
+	void detectaFramesIncompletos() throws Exception {
+		ResultSpill.Spill spill = ResultSpill.spillIfLarge(new byte[3 * ResultSpill.FRAME_SIZE], 1024);
+		List<ResultFrame> frames = new ArrayList<>();
+		try (ResultSpill.Spill s = spill) {
+			s.forEachFrame("t2", frames::add);
+		}
+
+		try (ResultSpill.Receiver receiver = new ResultSpill.Receiver()) {
+			receiver.accept(frames.get(0));
+			assertThrows(java.io.IOException.class, () -> receiver.resolve(spill.descriptor()));
+		}
+
+		// Los datos normales pasan sin tocar
+		try (ResultSpill.Receiver receiver = new ResultSpill.Receiver()) {
+			assertEquals(42L, receiver.resolve(42L));
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package com.taskbalancer.master;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadBalancerTest {
+
+	private static WorkerInfo worker(String id, int currentTasks) {
+		WorkerInfo w = new WorkerInfo(id, 4, (ObjectOutputStream) null);
+		w.setCurrentTasks(currentTasks);
+		return w;
+	}
+
+	@Test
+	void prefiereElWorkerQueTieneLosDatosAunqueEsteMasCargado() {
+		LoadBalancer balancer = new LoadBalancer(LoadBalancer.Strategy.LEAST_LOADED);
+		WorkerInfo libre = worker("libre", 0);
+		WorkerInfo conDatos = worker("conDatos", 2);
+		conDatos.addCachedData(List.of("B"));
+
+		assertSame(conDatos, balancer.selectWorker(List.of(libre, conDatos), List.of("B")));
+		assertSame(libre, balancer.selectWorker(List.of(libre, conDatos), List.of()));
+	}
+
+	@Test
+	void entreVariosConDatosEligeElQueTieneMasYLuegoPorCarga() {
+		LoadBalancer balancer = new LoadBalancer(LoadBalancer.Strategy.LEAST_LOADED);
+		WorkerInfo uno = worker("uno", 0);
+		uno.addCachedData(List.of("A"));
+		WorkerInfo dosCargado = worker("dosCargado", 3);
+		dosCargado.addCachedData(List.of("A", "B"));
+		WorkerInfo dosLibre = worker("dosLibre", 1);
+		dosLibre.addCachedData(List.of("A", "B"));
+
+		assertSame(dosLibre, balancer.selectWorker(List.of(uno, dosCargado, dosLibre), List.of("A", "B")));
+	}
+
+	@Test
+	void sinNadieConLosDatosUsaLaEstrategiaNormal() {
+		LoadBalancer balancer = new LoadBalancer(LoadBalancer.Strategy.LEAST_LOADED);
+		WorkerInfo a = worker("a", 2);
+		WorkerInfo b = worker("b", 1);
+		b.addCachedData(List.of("X"));
+		b.removeCachedData("X");
+
+		assertSame(b, balancer.selectWorker(List.of(a, b), List.of("X")));
+		assertFalse(b.holdsData("X"));
+	}
+
+	@Test
+	void planDeRoboPideLaMitadDeLaColaALaVictimaMasCargada() {
+		LoadBalancer balancer = new LoadBalancer(LoadBalancer.Strategy.LEAST_LOADED);
+		// 2 hilos + 4 de precarga: con 6 tareas tiene 4 en cola local
+		WorkerInfo cargado = new WorkerInfo("cargado", 6, (ObjectOutputStream) null);
+		cargado.setPrefetch(4);
+		cargado.setCurrentTasks(6);
+		WorkerInfo ocioso = new WorkerInfo("ocioso", 3, (ObjectOutputStream) null);
+		ocioso.setCurrentTasks(0);
+
+		Map<WorkerInfo, Integer> plan = balancer.planSteals(List.of(cargado, ocioso));
+
+		assertEquals(4, cargado.getQueuedTasks());
+		assertEquals(Map.of(cargado, 2), plan);
+	}
+
+	@Test
+	void planDeRoboLimitadoPorHilosLibresYSinRobosPendientes() {
+		LoadBalancer balancer = new LoadBalancer(LoadBalancer.Strategy.LEAST_LOADED);
+		WorkerInfo a = new WorkerInfo("a", 10, (ObjectOutputStream) null);
+		a.setPrefetch(9);
+		a.setCurrentTasks(10);
+		WorkerInfo b = new WorkerInfo("b", 10, (ObjectOutputStream) null);
+		b.setPrefetch(9);
+		b.setCurrentTasks(8);
+		WorkerInfo casiOcioso = new WorkerInfo("casiOcioso", 2, (ObjectOutputStream) null);
+		casiOcioso.setCurrentTasks(1);
+
+		assertEquals(Map.of(a, 1), balancer.planSteals(List.of(a, b, casiOcioso)));
+
+		assertTrue(a.tryBeginSteal());
+		assertFalse(a.tryBeginSteal());
+		assertEquals(Map.of(b, 1), balancer.planSteals(List.of(a, b, casiOcioso)));
+
+		a.endSteal();
+		casiOcioso.setCurrentTasks(2);
+		assertTrue(balancer.planSteals(List.of(a, b, casiOcioso)).isEmpty());
+	}
+}
@@ -30,6 +30,19 @@ class TaskQueueTest {
 		TaskQueue queue = new TaskQueue();
 		assertNull(queue.dequeue(50, TimeUnit.MILLISECONDS));
 	}
+
+	@Test
+	void tareaRobadaSeReencolaEnCabeza() throws Exception {
+		TaskQueue queue = new TaskQueue();
+		Task nueva = new Task("nueva", "PRIME_TEST", new HashMap<>());
+		Task robada = new Task("robada", "MATRIX_MULT", new HashMap<>());
+
+		queue.enqueue(nueva);
+		queue.requeueFirst(robada);
+
+		assertSame(robada, queue.dequeue());
+		assertSame(nueva, queue.dequeue());
+	}
 }
 
 
@@ -3,6 +3,7 @@ package com.taskbalancer.master;
 import org.junit.jupiter.api.Test;
 
 import java.io.ObjectOutputStream;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -52,6 +53,103 @@ class WorkerRegistryTest {
 		assertEquals(0, registry.getWorkerCount());
 		assertNull(registry.getWorker("w3"));
 	}
+
+	@Test
+	void decrementa_tareas_sin_bajar_de_cero() {
+		WorkerInfo w = new WorkerInfo("w4", 2, (ObjectOutputStream) null);
+		w.incrementTasks();
+		w.incrementTasks();
+		assertFalse(w.isAvailable());
+
+		// El resultado libera el hueco al momento
+		w.decrementTasks();
+		assertTrue(w.isAvailable());
+
+		// Un heartbeat ya dejó el contador a 0 antes de llegar el resultado
+		w.setCurrentTasks(0);
+		w.decrementTasks();
+		assertEquals(0, w.getCurrentTasks());
+	}
+
+	@Test
+	void en_modo_pull_solo_recibe_tareas_quien_las_ha_pedido() {
+		WorkerRegistry registry = new WorkerRegistry();
+		WorkerInfo pide = new WorkerInfo("w5", 1, (ObjectOutputStream) null);
+		WorkerInfo callado = new WorkerInfo("w6", 4, (ObjectOutputStream) null);
+		registry.registerWorker(pide);
+		registry.registerWorker(callado);
+
+		pide.addPullCredits(2);
+		assertEquals(1, registry.getPullingWorkers().size());
+		assertSame(pide, registry.getPullingWorkers().get(0));
+
+		// Nunca se envían más tareas de las pedidas
+		assertTrue(pide.tryTakePullCredit());
+		assertTrue(pide.tryTakePullCredit());
+		assertFalse(pide.tryTakePullCredit());
+		assertEquals(0, pide.getPullCredits());
+		assertTrue(registry.getPullingWorkers().isEmpty());
+	}
+
+	@Test
+	void en_modo_pull_con_pools_las_peticiones_son_de_cada_pool() {
+		WorkerRegistry registry = new WorkerRegistry();
+		WorkerInfo w = new WorkerInfo("w9", 3, (ObjectOutputStream) null);
+		w.setPools(Map.of("default", 2, "heavy", 1), Map.of("HASH_STRESS", "heavy"));
+		registry.registerWorker(w);
+
+		w.addPullCredits(Map.of("default", 2));
+		assertEquals(1, registry.getPullingWorkers().size());
+		assertEquals(1, registry.getPullingWorkers("PRIME_TEST").size());
+		// Sin petición para el pool pesado no se le envía una tarea pesada
+		assertTrue(registry.getPullingWorkers("HASH_STRESS").isEmpty());
+		assertFalse(w.tryTakePullCredit("HASH_STRESS"));
+
+		w.addPullCredits(Map.of("heavy", 1));
+		assertTrue(w.tryTakePullCredit("HASH_STRESS"));
+		assertFalse(w.tryTakePullCredit("HASH_STRESS"));
+		assertEquals(2, w.getPullCredits("PRIME_TEST"));
+		assertEquals(2, w.getPullCredits());
+	}
+
+	@Test
+	void con_pools_solo_esta_disponible_para_tipos_con_hueco_en_su_pool() {
+		WorkerRegistry registry = new WorkerRegistry();
+		WorkerInfo w = new WorkerInfo("w7", 3, (ObjectOutputStream) null);
+		w.setPools(Map.of("default", 2, "heavy", 1), Map.of("HASH_STRESS", "heavy"));
+		registry.registerWorker(w);
+
+		w.taskAssigned("h1", "HASH_STRESS");
+		assertTrue(registry.getAvailableWorkers("HASH_STRESS").isEmpty());
+		assertEquals(1, registry.getAvailableWorkers("PRIME_TEST").size());
+		assertEquals(1, w.getPoolTasks("heavy"));
+
+		w.taskFinished("h1");
+		assertEquals(0, w.getPoolTasks("heavy"));
+		assertEquals(0, w.getCurrentTasks());
+		assertEquals(1, registry.getAvailableWorkers("HASH_STRESS").size());
+	}
+
+	@Test
+	void capacidad_anunciada_cambia_los_huecos_disponibles() {
+		WorkerRegistry registry = new WorkerRegistry();
+		WorkerInfo w = new WorkerInfo("w8", 2, (ObjectOutputStream) null);
+		w.setPools(Map.of("default", 2), Map.of());
+		registry.registerWorker(w);
+
+		w.taskAssigned("t1", "PRIME_TEST");
+		w.taskAssigned("t2", "PRIME_TEST");
+		assertTrue(registry.getAvailableWorkers("PRIME_TEST").isEmpty());
+
+		// El worker sube su límite: vuelve a tener hueco
+		w.setCapacity(3, Map.of("default", 3));
+		assertEquals(3, w.getMaxTasks());
+		assertEquals(1, registry.getAvailableWorkers("PRIME_TEST").size());
+
+		// Y lo baja por debajo de lo que ya tiene asignado
+		w.setCapacity(1, Map.of("default", 1));
+		assertTrue(registry.getAvailableWorkers("PRIME_TEST").isEmpty());
+	}
 }
 
 
@@ -0,0 +1,80 @@
+package com.taskbalancer.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComputePoolTest {
+
+	@Test
+	void reparteElParalelismoEntreLasTareasEnCurso() {
+		ComputePool pool = new ComputePool(4);
+		try {
+			assertEquals(4, pool.parallelism());
+
+			pool.taskStarted();
+			assertEquals(4, pool.parallelism());
+			pool.taskStarted();
+			assertEquals(2, pool.parallelism());
+			pool.taskStarted();
+			pool.taskStarted();
+			assertEquals(1, pool.parallelism());
+			assertFalse(pool.shouldFork());
+
+			// Más tareas que hilos: sigue tocando al menos un núcleo
+			pool.taskStarted();
+			assertEquals(1, pool.parallelism());
+
+			for (int i = 0; i < 4; i++) {
+				pool.taskFinished();
+			}
+			assertEquals(1, pool.getRunningTasks());
+			assertTrue(pool.shouldFork());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void invokeAllDevuelveLosResultadosEnOrden() {
+		ComputePool pool = new ComputePool(3);
+		try {
+			List<Callable<Integer>> work = List.of(() -> 1, () -> 2, () -> 3, () -> 4, () -> 5);
+			assertEquals(List.of(1, 2, 3, 4, 5), pool.invokeAll(work));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void invokeAllPropagaLaExcepcionDelTrabajo() {
+		ComputePool pool = new ComputePool(2);
+		try {
+			List<Callable<Integer>> work = List.of(() -> 1, () -> {
+				throw new IllegalArgumentException("fallo");
+			});
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> pool.invokeAll(work));
+			assertEquals("fallo", e.getMessage());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void callEjecutaLosParallelStreamsEnElPool() {
+		ComputePool pool = new ComputePool(2);
+		try {
+			long workers = pool.call(() -> IntStream.range(0, 1000).parallel()
+					.mapToObj(i -> Thread.currentThread())
+					.filter(t -> t.getName().startsWith("ForkJoinPool.commonPool"))
+					.count());
+			assertEquals(0, workers);
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.taskbalancer.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalSorterTest {
+
+	private static int[] sortExternally(int[] data, int runSize, ExternalSorter.Summary[] summary) throws Exception {
+		return sortExternally(data, runSize, 0, summary);
+	}
+
+	private static int[] sortExternally(int[] data, int runSize, int bound, ExternalSorter.Summary[] summary) throws Exception {
+		int[] offset = {0};
+		int[] output = new int[data.length];
+		int[] written = {0};
+
+		summary[0] = new ExternalSorter(runSize, bound).sort(data.length, (buffer, length) -> {
+			System.arraycopy(data, offset[0], buffer, 0, length);
+			offset[0] += length;
+		}, v -> output[written[0]++] = v);
+
+		assertEquals(data.length, written[0]);
+		return output;
+	}
+
+	@Test
+	void mezclaVariasRunsComoArraysSort() throws Exception {
+		int[] data = new SplittableRandom(5).ints(250_003, Integer.MIN_VALUE, Integer.MAX_VALUE).toArray();
+		int[] expected = data.clone();
+		Arrays.sort(expected);
+
+		ExternalSorter.Summary[] summary = new ExternalSorter.Summary[1];
+		int[] sorted = sortExternally(data, 10_000, summary);
+
+		assertArrayEquals(expected, sorted);
+		assertEquals(26, summary[0].runs);
+		assertArrayEquals(Arrays.copyOf(expected, 10), summary[0].head);
+		assertEquals(250_003L * 4, summary[0].bytes());
+	}
+
+	@Test
+	void runsConClavesAcotadasUsanRadix() throws Exception {
+		int[] data = SortRandomTask.generate(123_457, 1000, new SplittableRandom(8));
+		int[] expected = data.clone();
+		Arrays.sort(expected);
+
+		// La última run es más corta que el buffer: el radix debe limitarse a su longitud
+		ExternalSorter.Summary[] summary = new ExternalSorter.Summary[1];
+		assertArrayEquals(expected, sortExternally(data, 50_000, 1000, summary));
+		assertEquals(3, summary[0].runs);
+	}
+
+	@Test
+	void casosLimite() throws Exception {
+		ExternalSorter.Summary[] summary = new ExternalSorter.Summary[1];
+
+		assertEquals(0, sortExternally(new int[0], 16, summary).length);
+		assertEquals(0, summary[0].runs);
+
+		assertArrayEquals(new int[]{7}, sortExternally(new int[]{7}, 16, summary));
+
+		// Muchos duplicados y runs de un elemento
+		int[] dup = {3, 1, 3, 1, 2, 2, 3, 1};
+		assertArrayEquals(new int[]{1, 1, 1, 2, 2, 3, 3, 3}, sortExternally(dup, 1, summary));
+		assertEquals(8, summary[0].runs);
+
+		assertThrows(IllegalArgumentException.class, () -> new ExternalSorter(0, 0));
+	}
+}
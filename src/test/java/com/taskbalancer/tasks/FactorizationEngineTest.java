@@ -0,0 +1,45 @@
+package com.taskbalancer.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FactorizationEngineTest {
+
+	@Test
+	void factoresAleatoriosSonPrimosOrdenadosYReconstruyenElNumero() {
+		SplittableRandom random = new SplittableRandom(7);
+		for (int i = 0; i < 2_000; i++) {
+			long n = 1 + random.nextLong(Long.MAX_VALUE - 1);
+			List<Long> factors = FactorizationEngine.factorize(n, false);
+
+			long product = 1;
+			long previous = 1;
+			for (long f : factors) {
+				assertTrue(PrimeUtils.isPrime(f), f + " no es primo (n=" + n + ")");
+				assertTrue(f >= previous, "factores no ordenados (n=" + n + ")");
+				product *= f;
+				previous = f;
+			}
+			assertEquals(n, product);
+		}
+	}
+
+	@Test
+	void factorizaCuadradosYPotenciasDePrimosGrandes() {
+		long p = 3037000493L; // mayor primo con p^2 < 2^63
+		assertEquals(List.of(p, p), FactorizationEngine.factorize(p * p, false));
+		assertEquals(List.of(1_000_003L, 1_000_003L, 1_000_003L),
+				FactorizationEngine.factorize(1_000_003L * 1_000_003L * 1_000_003L, true));
+	}
+
+	@Test
+	void gcdBinario() {
+		assertEquals(6, FactorizationEngine.gcd(48, 18));
+		assertEquals(7, FactorizationEngine.gcd(0, 7));
+		assertEquals(1, FactorizationEngine.gcd(17, 4));
+	}
+}
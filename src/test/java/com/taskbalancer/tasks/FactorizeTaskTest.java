@@ -159,6 +159,38 @@ class FactorizeTaskTest {
 		}
 	}
 
+	@Test
+	void factorizaSemiprimoDePrimosDe31Bits_conYSinParalelismo() {
+		FactorizeTask handler = new FactorizeTask();
+		long p = 2147483629L;
+		long q = 2147483647L;
+
+		for (boolean parallel : new boolean[]{false, true}) {
+			Map<String, Object> params = new HashMap<>();
+			params.put("number", p * q);
+			params.put("parallel", parallel);
+
+			Result r = handler.execute(new Task("f-rho-" + parallel, handler.getTaskType(), params));
+
+			assertTrue(r.isSuccess());
+			assertEquals(List.of(p, q), r.getData());
+			assertTrue(r.getExecutionTimeMs() < 1000, "Pollard-rho no debe recorrer todos los divisores");
+		}
+	}
+
+	@Test
+	void errorCuandoNumeroNoEsPositivo() {
+		FactorizeTask handler = new FactorizeTask();
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("number", 0L);
+
+		Result r = handler.execute(new Task("f-zero", handler.getTaskType(), params));
+
+		assertFalse(r.isSuccess());
+		assertNotNull(r.getError());
+	}
+
 	@Test
 	void errorCuandoFaltaParametro() {
 		FactorizeTask handler = new FactorizeTask();
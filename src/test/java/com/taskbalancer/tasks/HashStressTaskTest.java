@@ -4,7 +4,9 @@ import com.taskbalancer.common.Result;
 import com.taskbalancer.common.Task;
 import org.junit.jupiter.api.Test;
 
+import java.security.MessageDigest;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -97,6 +99,67 @@ class HashStressTaskTest {
 		}
 	}
 
+	@Test
+	void produceElMismoHashQueLaImplementacionConStrings() throws Exception {
+		for (int iter : new int[]{0, 1, 2, 1000}) {
+			assertEquals(referenceHash("SimpleTaskBalancer", iter),
+					HashStressTask.applyHashMultipleTimes("SimpleTaskBalancer", iter), "iteraciones=" + iter);
+		}
+	}
+
+	@Test
+	void modoMultiBuffer_hasheaEntradasIndependientesEnOrden() throws Exception {
+		HashStressTask handler = new HashStressTask();
+
+		List<String> inputs = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+		Map<String, Object> params = new HashMap<>();
+		params.put("inputs", inputs);
+		params.put("iterations", 500);
+
+		Result r = handler.execute(new Task("h-multi-buffer", handler.getTaskType(), params));
+
+		assertTrue(r.isSuccess(), r.getError());
+		assertTrue(r.getData() instanceof List);
+		@SuppressWarnings("unchecked")
+		List<String> hashes = (List<String>) r.getData();
+		assertEquals(inputs.size(), hashes.size());
+		for (int i = 0; i < inputs.size(); i++) {
+			assertEquals(referenceHash(inputs.get(i), 500), hashes.get(i));
+		}
+	}
+
+	@Test
+	void modoMultiBuffer_mismosHashesEnParaleloYConElPoolSaturado() {
+		ComputePool pool = new ComputePool(4);
+		try {
+			List<String> inputs = List.of("a", "b", "c", "d", "e", "f", "g", "h");
+			List<String> parallel = HashStressTask.hashAll(pool, inputs, 200);
+
+			for (int i = 0; i < 4; i++) {
+				pool.taskStarted();
+			}
+			assertFalse(pool.shouldFork());
+			assertEquals(parallel, HashStressTask.hashAll(pool, inputs, 200));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	// Implementación original (String + getBytes + String.format) como referencia
+	private static String referenceHash(String input, int iterations) throws Exception {
+		MessageDigest md = MessageDigest.getInstance("SHA-256");
+		String current = input;
+		for (int i = 0; i < iterations; i++) {
+			byte[] hash = md.digest(current.getBytes());
+			StringBuilder sb = new StringBuilder();
+			for (byte b : hash) {
+				sb.append(String.format("%02x", b));
+			}
+			current = sb.toString();
+		}
+		return current;
+	}
+
 	@Test
 	void errorCuandoFaltaParametroInput() {
 		HashStressTask handler = new HashStressTask();
@@ -1,5 +1,6 @@
 package com.taskbalancer.tasks;
 
+import com.taskbalancer.common.Attachment;
 import com.taskbalancer.common.Result;
 import com.taskbalancer.common.Task;
 import org.junit.jupiter.api.Test;
@@ -101,7 +102,7 @@ class MatrixMultTaskTest {
 	void tamañoExcedeMaximo_devuelveError() {
 		MatrixMultTask handler = new MatrixMultTask();
 		Map<String, Object> p = new HashMap<>();
-		p.put("size", 1000);
+		p.put("size", 5000);
 
 		Result r = handler.execute(new Task("m2", handler.getTaskType(), p));
 
@@ -109,6 +110,134 @@ class MatrixMultTaskTest {
 		assertNotNull(r.getError());
 		assertTrue(r.getError().contains("Tamaño máximo"));
 	}
+
+	@Test
+	void kernelNaive_mantieneLimiteDe500() {
+		MatrixMultTask handler = new MatrixMultTask();
+		Map<String, Object> p = new HashMap<>();
+		p.put("size", 600);
+		p.put("kernel", "NAIVE");
+
+		Result r = handler.execute(new Task("m-naive-600", handler.getTaskType(), p));
+
+		assertFalse(r.isSuccess());
+		assertTrue(r.getError().contains("Tamaño máximo: 500"));
+	}
+
+	@Test
+	void kernelsOptimizados_superanElLimiteYReportanGflops() {
+		MatrixMultTask handler = new MatrixMultTask();
+		Map<String, Object> p = new HashMap<>();
+		p.put("size", 700);
+		p.put("kernel", "parallel");
+
+		Result r = handler.execute(new Task("m-par-700", handler.getTaskType(), p));
+
+		assertTrue(r.isSuccess(), r.getError());
+		String summary = (String) r.getData();
+		assertTrue(summary.startsWith("Matriz 700x700 multiplicada."));
+		assertTrue(summary.contains("kernel PARALLEL"));
+		assertTrue(summary.contains("GFLOP/s"));
+		assertEquals(MatrixMultTask.isVectorAvailable(), summary.contains("PARALLEL+SIMD"));
+	}
+
+	@Test
+	void todosLosKernelsCoincidenConElNaive() {
+		// Tamaño no múltiplo del bloque para cubrir los bordes
+		int n = 131;
+		java.util.Random random = new java.util.Random(3);
+		double[] a = new double[n * n];
+		double[] b = new double[n * n];
+		for (int i = 0; i < n * n; i++) {
+			a[i] = random.nextDouble();
+			b[i] = random.nextDouble();
+		}
+
+		double[] expected = MatrixMultTask.multiply(MatrixMultTask.Kernel.NAIVE, false, a, b, n);
+		for (MatrixMultTask.Kernel kernel : MatrixMultTask.Kernel.values()) {
+			// simd=true cubre el kernel vectorial cuando se ejecuta con el perfil 'vector'
+			for (boolean simd : new boolean[]{false, true}) {
+				double[] actual = MatrixMultTask.multiply(kernel, simd, a, b, n);
+				assertArrayEquals(expected, actual, 1e-9, "kernel " + kernel + " simd=" + simd);
+			}
+		}
+	}
+
+	@Test
+	void adjuntosAyB_devuelveElProductoComoAdjunto() {
+		int n = 17;
+		java.util.Random random = new java.util.Random(5);
+		double[] a = new double[n * n];
+		double[] b = new double[n * n];
+		for (int i = 0; i < n * n; i++) {
+			a[i] = random.nextDouble();
+			b[i] = random.nextDouble();
+		}
+		MatrixMultTask handler = new MatrixMultTask();
+		Task task = new Task("m-att", handler.getTaskType(), new HashMap<>());
+		task.addAttachment("a", Attachment.ofMatrix(a, n, n));
+		task.addAttachment("b", Attachment.ofMatrix(b, n, n));
+
+		Result r = handler.execute(task);
+
+		assertTrue(r.isSuccess(), r.getError());
+		Attachment product = (Attachment) r.getData();
+		assertArrayEquals(new int[]{n, n}, product.getShape());
+		double[] expected = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				double sum = 0;
+				for (int k = 0; k < n; k++) {
+					sum += a[i * n + k] * b[k * n + j];
+				}
+				expected[i * n + j] = sum;
+			}
+		}
+		assertArrayEquals(expected, product.toDoubleArray(), 1e-9);
+	}
+
+	@Test
+	void adjuntosNoCuadradosODistintos_error() {
+		MatrixMultTask handler = new MatrixMultTask();
+		Task rect = new Task("m-rect", handler.getTaskType(), new HashMap<>());
+		rect.addAttachment("a", Attachment.ofMatrix(new double[6], 2, 3));
+		rect.addAttachment("b", Attachment.ofMatrix(new double[6], 2, 3));
+		assertFalse(handler.execute(rect).isSuccess());
+
+		Task distintos = new Task("m-dist", handler.getTaskType(), new HashMap<>());
+		distintos.addAttachment("a", Attachment.ofMatrix(new double[4], 2, 2));
+		distintos.addAttachment("b", Attachment.ofMatrix(new double[9], 3, 3));
+		assertFalse(handler.execute(distintos).isSuccess());
+
+		Task solo = new Task("m-solo", handler.getTaskType(), new HashMap<>());
+		solo.addAttachment("a", Attachment.ofMatrix(new double[4], 2, 2));
+		Result r = handler.execute(solo);
+		assertFalse(r.isSuccess());
+		assertTrue(r.getError().contains("'a' y 'b'"));
+	}
+
+	@Test
+	void paraleloEnPoolPropioCoincideConNaive() {
+		int n = 200;
+		double[] a = new double[n * n];
+		double[] b = new double[n * n];
+		for (int i = 0; i < a.length; i++) {
+			a[i] = i % 13;
+			b[i] = i % 7;
+		}
+		double[] expected = MatrixMultTask.multiply(MatrixMultTask.Kernel.NAIVE, false, a, b, n);
+
+		ComputePool pool = new ComputePool(4);
+		try {
+			assertArrayEquals(expected, MatrixMultTask.multiply(pool, MatrixMultTask.Kernel.PARALLEL, false, a, b, n), 1e-9);
+			for (int i = 0; i < 4; i++) {
+				pool.taskStarted();
+			}
+			assertArrayEquals(expected, MatrixMultTask.multiply(pool, MatrixMultTask.Kernel.PARALLEL, false, a, b, n), 1e-9);
+		} finally {
+			pool.shutdown();
+		}
+	}
 }
 
 
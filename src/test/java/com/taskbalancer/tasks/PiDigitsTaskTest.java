@@ -0,0 +1,59 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Result;
+import com.taskbalancer.common.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PiDigitsTaskTest {
+
+	private static final String PI_100 = "3.1415926535897932384626433832795028841971693993751"
+			+ "058209749445923078164062862089986280348253421170679";
+
+	@Test
+	void calculaLosPrimeros100Decimales() {
+		PiDigitsTask handler = new PiDigitsTask();
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("digits", 100);
+
+		Result r = handler.execute(new Task("pd1", handler.getTaskType(), params));
+
+		assertTrue(r.isSuccess(), r.getError());
+		assertEquals(PI_100, r.getData());
+	}
+
+	@Test
+	void resultadosDeDistintaPrecisionSonConsistentes() {
+		// 20000 decimales fuerza la división binaria en paralelo
+		String large = PiDigitsTask.computePi(20000);
+		String small = PiDigitsTask.computePi(5000);
+
+		assertEquals(20002, large.length());
+		assertTrue(large.startsWith(PI_100));
+		assertEquals(small, large.substring(0, small.length()));
+	}
+
+	@Test
+	void unDecimal() {
+		assertEquals("3.1", PiDigitsTask.computePi(1));
+	}
+
+	@Test
+	void errorCuandoFaltaParametroOFueraDeRango() {
+		PiDigitsTask handler = new PiDigitsTask();
+
+		Result r1 = handler.execute(new Task("pd-e1", handler.getTaskType(), new HashMap<>()));
+		assertFalse(r1.isSuccess());
+		assertTrue(r1.getError().contains("digits"));
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("digits", 0);
+		Result r2 = handler.execute(new Task("pd-e2", handler.getTaskType(), params));
+		assertFalse(r2.isSuccess());
+	}
+}
@@ -4,7 +4,9 @@ import com.taskbalancer.common.Result;
 import com.taskbalancer.common.Task;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -132,6 +134,51 @@ class PiEstimationTaskTest {
 		assertTrue(error1 < 1.0 && error2 < 1.0);
 	}
 
+	@Test
+	void modoParaleloConSemillaEsReproducible() {
+		PiEstimationTask handler = new PiEstimationTask();
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("iterations", 20_000_000L);
+		params.put("parallel", true);
+		params.put("seed", 1234L);
+
+		Result r1 = handler.execute(new Task("pi-par-1", handler.getTaskType(), params));
+		Result r2 = handler.execute(new Task("pi-par-2", handler.getTaskType(), params));
+
+		assertTrue(r1.isSuccess(), r1.getError());
+		assertEquals(r1.getData(), r2.getData());
+		assertEquals(Math.PI, ((Number) r1.getData()).doubleValue(), 0.01);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void modoCounts_devuelveRecuentosCombinables() {
+		PiEstimationTask handler = new PiEstimationTask();
+		List<Map<String, Object>> partials = new ArrayList<>();
+
+		for (int i = 0; i < 3; i++) {
+			Map<String, Object> params = new HashMap<>();
+			params.put("iterations", 1_000_000);
+			params.put("parallel", true);
+			params.put("counts", true);
+			params.put("seed", (long) i);
+
+			Result r = handler.execute(new Task("pi-counts-" + i, handler.getTaskType(), params));
+
+			assertTrue(r.isSuccess(), r.getError());
+			Map<String, Object> counts = (Map<String, Object>) r.getData();
+			assertEquals(1_000_000L, counts.get("total"));
+			long inside = (Long) counts.get("inside");
+			assertEquals(4.0 * inside / 1_000_000, (Double) counts.get("estimate"), 1e-12);
+			partials.add(counts);
+		}
+
+		Map<String, Object> merged = PiEstimationTask.mergeCounts(partials);
+		assertEquals(3_000_000L, merged.get("total"));
+		assertEquals(Math.PI, (Double) merged.get("estimate"), 0.01);
+	}
+
 	@Test
 	void errorCuandoFaltaParametro() {
 		PiEstimationTask handler = new PiEstimationTask();
@@ -142,5 +189,25 @@ class PiEstimationTaskTest {
 		assertNotNull(r.getError());
 		assertTrue(r.getError().contains("iterations") || r.getError().contains("requerido"));
 	}
-}
 
+	@Test
+	void paraleloConSemillaNoDependeDeLosNucleosLibres() {
+		Map<String, Object> params = new HashMap<>();
+		params.put("iterations", 8_000_000L);
+		params.put("seed", 7L);
+		params.put("parallel", true);
+
+		ComputePool idle = new ComputePool(4);
+		ComputePool busy = new ComputePool(2);
+		busy.taskStarted();
+		busy.taskStarted();
+		try {
+			Object a = new PiEstimationTask(idle).execute(new Task("pi-a", "PI_ESTIMATION", params)).getData();
+			Object b = new PiEstimationTask(busy).execute(new Task("pi-b", "PI_ESTIMATION", params)).getData();
+			assertEquals(a, b);
+		} finally {
+			idle.shutdown();
+			busy.shutdown();
+		}
+	}
+}
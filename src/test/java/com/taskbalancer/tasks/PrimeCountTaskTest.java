@@ -0,0 +1,80 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Result;
+import com.taskbalancer.common.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimeCountTaskTest {
+
+	@Test
+	void coincideConCribaParaValoresPequenos() {
+		int limit = 20000;
+		boolean[] composite = new boolean[limit + 1];
+		long count = 0;
+		for (int n = 0; n <= limit; n++) {
+			if (n >= 2 && !composite[n]) {
+				count++;
+				for (long j = (long) n * n; j <= limit; j += n) {
+					composite[(int) j] = true;
+				}
+			}
+			assertEquals(count, PrimeCountTask.countPrimes(n), "x=" + n);
+		}
+	}
+
+	@Test
+	void valoresConocidosDePotenciasDeDiez() {
+		assertEquals(78498L, PrimeCountTask.countPrimes(1_000_000L));
+		assertEquals(50847534L, PrimeCountTask.countPrimes(1_000_000_000L));
+		assertEquals(4118054813L, PrimeCountTask.countPrimes(100_000_000_000L));
+	}
+
+	@Test
+	void mismoRecuentoEnParaleloYConElPoolSaturado() {
+		ComputePool pool = new ComputePool(4);
+		try {
+			// 10^11 pasa por las ramas paralelas (sqrt(x) > umbral) mientras hay núcleos libres
+			assertEquals(4118054813L, PrimeCountTask.countPrimes(pool, 100_000_000_000L));
+
+			for (int i = 0; i < 4; i++) {
+				pool.taskStarted();
+			}
+			assertFalse(pool.shouldFork());
+			assertEquals(4118054813L, PrimeCountTask.countPrimes(pool, 100_000_000_000L));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void devuelveSoloElRecuento() {
+		PrimeCountTask handler = new PrimeCountTask();
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("limit", 10_000_000_000L);
+
+		Result r = handler.execute(new Task("pc1", handler.getTaskType(), params));
+
+		assertTrue(r.isSuccess(), r.getError());
+		assertEquals(455052511L, r.getData());
+	}
+
+	@Test
+	void errorCuandoFaltaParametroOExcedeLimite() {
+		PrimeCountTask handler = new PrimeCountTask();
+
+		Result r1 = handler.execute(new Task("pc-e1", handler.getTaskType(), new HashMap<>()));
+		assertFalse(r1.isSuccess());
+		assertTrue(r1.getError().contains("limit"));
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("limit", Long.MAX_VALUE);
+		Result r2 = handler.execute(new Task("pc-e2", handler.getTaskType(), params));
+		assertFalse(r2.isSuccess());
+	}
+}
@@ -0,0 +1,115 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Result;
+import com.taskbalancer.common.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimeRangeTaskTest {
+
+	private static Result run(PrimeRangeTask handler, long start, long end) {
+		Map<String, Object> params = new HashMap<>();
+		params.put("start", start);
+		params.put("end", end);
+		return handler.execute(new Task("t1", "PRIME_RANGE", params));
+	}
+
+	private static List<Long> naive(long start, long end) {
+		List<Long> primes = new ArrayList<>();
+		for (long n = start; n <= end && n >= start; n++) {
+			if (PrimeUtils.isPrime(n)) {
+				primes.add(n);
+			}
+		}
+		return primes;
+	}
+
+	@Test
+	void rangoPequenoCoincideConMillerRabin() {
+		Result result = run(new PrimeRangeTask(), -10, 1000);
+		assertTrue(result.isSuccess());
+		assertEquals(naive(0, 1000), result.getData());
+	}
+
+	@Test
+	void rangoQueCruzaVariosSegmentos() {
+		long start = 1_000_000_000L;
+		long end = start + 600_000;
+		Result result = run(new PrimeRangeTask(), start, end);
+		assertTrue(result.isSuccess());
+		assertEquals(naive(start, end), result.getData());
+	}
+
+	@Test
+	void recurreAMillerRabinFueraDeLaTabla() {
+		PrimeRangeTask handler = new PrimeRangeTask(new PrimeTable(1000));
+		long end = Long.MAX_VALUE;
+		long start = end - 200;
+		Result result = run(handler, start, end);
+		assertTrue(result.isSuccess());
+		assertEquals(naive(start, end), result.getData());
+	}
+
+	@Test
+	void streamingEmiteTrozosYDevuelveElRecuento() {
+		long start = 0;
+		long end = 3_000_000;
+		Map<String, Object> params = new HashMap<>();
+		params.put("start", start);
+		params.put("end", end);
+
+		List<Object> chunks = new ArrayList<>();
+		Result result = new PrimeRangeTask().execute(new Task("t3", "PRIME_RANGE", params), chunks::add);
+
+		assertTrue(result.isSuccess());
+		assertEquals(216816L, result.getData());
+		assertTrue(chunks.size() > 1);
+
+		List<Long> all = new ArrayList<>();
+		for (Object chunk : chunks) {
+			List<?> primes = (List<?>) chunk;
+			assertTrue(primes.size() <= PrimeRangeTask.CHUNK_SIZE);
+			primes.forEach(p -> all.add((Long) p));
+		}
+		assertEquals(run(new PrimeRangeTask(), start, end).getData(), all);
+	}
+
+	@Test
+	void rangoVacioYParametrosAusentes() {
+		Result empty = run(new PrimeRangeTask(), 100, 10);
+		assertTrue(empty.isSuccess());
+		assertEquals(List.of(), empty.getData());
+
+		Result missing = new PrimeRangeTask().execute(new Task("t2", "PRIME_RANGE", new HashMap<>()));
+		assertFalse(missing.isSuccess());
+		assertNotNull(missing.getError());
+	}
+
+	@Test
+	void cribaParalelaYSaturadaCoincidenConLaSerie() {
+		long start = 3_000_000_000L;
+		long end = start + 2_000_000;
+		Object serial = run(new PrimeRangeTask(new PrimeTable(), new ComputePool(1)), start, end).getData();
+
+		ComputePool pool = new ComputePool(4);
+		try {
+			Result parallel = run(new PrimeRangeTask(new PrimeTable(), pool), start, end);
+			assertTrue(parallel.isSuccess());
+			assertEquals(serial, parallel.getData());
+
+			// Con el pool ocupado por otras tareas criba en serie
+			for (int i = 0; i < 4; i++) {
+				pool.taskStarted();
+			}
+			assertEquals(serial, run(new PrimeRangeTask(new PrimeTable(), pool), start, end).getData());
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
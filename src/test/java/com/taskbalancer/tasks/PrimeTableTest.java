@@ -0,0 +1,74 @@
+package com.taskbalancer.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimeTableTest {
+
+	@Test
+	void coincideConMillerRabin() {
+		PrimeTable table = new PrimeTable(200_000);
+		for (int n = -5; n <= 200_000; n++) {
+			assertEquals(PrimeUtils.isPrime(n), table.isPrime(n), "n=" + n);
+		}
+	}
+
+	@Test
+	void primesUpToDevuelveLaListaCompleta() {
+		PrimeTable table = new PrimeTable(100_000);
+		int[] primes = table.primesUpTo(100_000);
+		assertEquals(9592, primes.length);
+		assertEquals(2, primes[0]);
+		assertEquals(99991, primes[primes.length - 1]);
+		assertArrayEquals(new int[]{2, 3, 5, 7}, table.primesUpTo(10));
+		assertEquals(0, table.primesUpTo(1).length);
+	}
+
+	@Test
+	void creceBajoDemandaHastaElMaximo() {
+		PrimeTable table = new PrimeTable(1_000_000);
+		int initial = table.getCurrentBound();
+		assertTrue(initial < 1_000_000);
+
+		assertTrue(table.isPrime(999_983));
+		assertTrue(table.getCurrentBound() >= 999_983);
+		assertTrue(table.getCurrentBound() <= 1_000_000);
+
+		assertTrue(table.covers(1_000_000));
+		assertFalse(table.covers(1_000_001));
+		assertThrows(IllegalArgumentException.class, () -> table.isPrime(1_000_003));
+		assertThrows(IllegalArgumentException.class, () -> table.primesUpTo(1_000_001));
+	}
+
+	@Test
+	void accesoConcurrenteDuranteElCrecimiento() throws Exception {
+		PrimeTable table = new PrimeTable(1 << 22);
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int t = 0; t < 32; t++) {
+				int bound = (1 << 16) * (t + 1);
+				futures.add(pool.submit(() -> {
+					for (int n = bound - 2000; n <= bound; n++) {
+						if (table.isPrime(n) != PrimeUtils.isPrime(n)) {
+							return false;
+						}
+					}
+					return true;
+				}));
+			}
+			for (Future<Boolean> f : futures) {
+				assertTrue(f.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+}
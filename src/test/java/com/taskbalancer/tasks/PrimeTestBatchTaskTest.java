@@ -0,0 +1,61 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Result;
+import com.taskbalancer.common.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimeTestBatchTaskTest {
+
+	@Test
+	void devuelveBitSetConLaPrimalidadDeCadaCandidato() {
+		PrimeTestBatchTask handler = new PrimeTestBatchTask();
+
+		long[] numbers = new long[100000];
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = 9223372036854775807L - i;
+		}
+		Map<String, Object> params = new HashMap<>();
+		params.put("numbers", numbers);
+
+		Result r = handler.execute(new Task("pb1", handler.getTaskType(), params));
+
+		assertTrue(r.isSuccess(), r.getError());
+		BitSet primes = (BitSet) r.getData();
+		for (int i = 0; i < numbers.length; i++) {
+			assertEquals(PrimeUtils.isPrime(numbers[i]), primes.get(i), "n=" + numbers[i]);
+		}
+		// 2^63 - 25 es el mayor primo de 64 bits con signo
+		assertTrue(primes.get(24));
+		assertEquals(24, primes.nextSetBit(0));
+	}
+
+	@Test
+	void aceptaListaDeNumeros() {
+		PrimeTestBatchTask handler = new PrimeTestBatchTask();
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("numbers", List.of(2L, 4L, 17, 561L, 982451653L));
+
+		Result r = handler.execute(new Task("pb2", handler.getTaskType(), params));
+
+		assertTrue(r.isSuccess(), r.getError());
+		BitSet primes = (BitSet) r.getData();
+		assertEquals("{0, 2, 4}", primes.toString());
+	}
+
+	@Test
+	void errorCuandoFaltaParametro() {
+		PrimeTestBatchTask handler = new PrimeTestBatchTask();
+		Result r = handler.execute(new Task("pb-e", handler.getTaskType(), new HashMap<>()));
+
+		assertFalse(r.isSuccess());
+		assertTrue(r.getError().contains("numbers"));
+	}
+}
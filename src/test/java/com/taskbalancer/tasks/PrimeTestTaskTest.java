@@ -4,6 +4,7 @@ import com.taskbalancer.common.Result;
 import com.taskbalancer.common.Task;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -59,7 +60,8 @@ class PrimeTestTaskTest {
 		assertTrue(r.isSuccess());
 		// No sabemos si es primo, pero debe ejecutarse sin error
 		assertNotNull(r.getData());
-		assertTrue(r.getExecutionTimeMs() > 0, "Debe tomar tiempo significativo");
+		// Con Miller-Rabin la comprobación es de microsegundos
+		assertTrue(r.getExecutionTimeMs() >= 0);
 	}
 
 	@Test
@@ -86,6 +88,60 @@ class PrimeTestTaskTest {
 		}
 	}
 
+	@Test
+	void primosCercaDeLongMaxValue() {
+		PrimeTestTask handler = new PrimeTestTask();
+
+		// Mayor primo que cabe en un long, y su vecino impar compuesto
+		Map<String, Object> p1 = new HashMap<>();
+		p1.put("number", 9223372036854775783L);
+		Result r1 = handler.execute(new Task("p-max", handler.getTaskType(), p1));
+		assertTrue(r1.isSuccess());
+		assertEquals(true, r1.getData());
+		assertTrue(r1.getExecutionTimeMs() < 100, "Miller-Rabin debe ser inmediato");
+
+		Map<String, Object> p2 = new HashMap<>();
+		p2.put("number", 9223372036854775781L);
+		Result r2 = handler.execute(new Task("p-max-c", handler.getTaskType(), p2));
+		assertTrue(r2.isSuccess());
+		assertEquals(false, r2.getData());
+	}
+
+	@Test
+	void detectaPseudoprimosFuertesYCarmichael() {
+		PrimeTestTask handler = new PrimeTestTask();
+
+		// 561 (Carmichael), 3215031751 (pseudoprimo fuerte en bases 2,3,5,7),
+		// 3825123056546413051 (pseudoprimo fuerte en las bases primas hasta 23)
+		long[] compuestos = {561L, 3215031751L, 3825123056546413051L};
+		for (long n : compuestos) {
+			Map<String, Object> params = new HashMap<>();
+			params.put("number", n);
+			Result r = handler.execute(new Task("p-psp-" + n, handler.getTaskType(), params));
+			assertTrue(r.isSuccess());
+			assertEquals(false, r.getData(), n + " no es primo");
+		}
+	}
+
+	@Test
+	void aceptaBigIntegerYCadenaParaNumerosArbitrarios() {
+		PrimeTestTask handler = new PrimeTestTask();
+
+		// 2^127 - 1 es primo de Mersenne
+		Map<String, Object> p1 = new HashMap<>();
+		p1.put("number", BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE));
+		Result r1 = handler.execute(new Task("p-big", handler.getTaskType(), p1));
+		assertTrue(r1.isSuccess());
+		assertEquals(true, r1.getData());
+
+		// 2^128 + 1 es compuesto
+		Map<String, Object> p2 = new HashMap<>();
+		p2.put("number", BigInteger.ONE.shiftLeft(128).add(BigInteger.ONE).toString());
+		Result r2 = handler.execute(new Task("p-big-str", handler.getTaskType(), p2));
+		assertTrue(r2.isSuccess());
+		assertEquals(false, r2.getData());
+	}
+
 	@Test
 	void errorCuandoFaltaParametro() {
 		PrimeTestTask handler = new PrimeTestTask();
@@ -0,0 +1,48 @@
+package com.taskbalancer.tasks;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrimeUtilsTest {
+
+	@Test
+	void coincideConCribaParaNumerosPequenos() {
+		int limit = 100_000;
+		boolean[] composite = new boolean[limit + 1];
+		for (int i = 2; (long) i * i <= limit; i++) {
+			if (!composite[i]) {
+				for (int j = i * i; j <= limit; j += i) {
+					composite[j] = true;
+				}
+			}
+		}
+		for (int n = -5; n <= limit; n++) {
+			boolean expected = n >= 2 && !composite[n];
+			assertEquals(expected, PrimeUtils.isPrime(n), "n=" + n);
+		}
+	}
+
+	@Test
+	void coincideConBigIntegerEnTodoElRangoDeLong() {
+		SplittableRandom random = new SplittableRandom(42);
+		for (int i = 0; i < 20_000; i++) {
+			long n = random.nextLong(Long.MAX_VALUE) | 1;
+			assertEquals(BigInteger.valueOf(n).isProbablePrime(64), PrimeUtils.isPrime(n), "n=" + n);
+		}
+	}
+
+	@Test
+	void productosDePrimosGrandesSonCompuestos() {
+		// Semiprimos cercanos a 2^62 donde a*b desbordaría sin aritmética de 128 bits
+		long p = 2147483647L;
+		long q = 2147483629L;
+		assertTrue(PrimeUtils.isPrime(p));
+		assertTrue(PrimeUtils.isPrime(q));
+		assertFalse(PrimeUtils.isPrime(p * q));
+		assertFalse(PrimeUtils.isPrime(BigInteger.valueOf(p).multiply(BigInteger.valueOf(q))));
+	}
+}
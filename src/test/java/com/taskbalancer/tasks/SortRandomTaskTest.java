@@ -0,0 +1,139 @@
+package com.taskbalancer.tasks;
+
+import com.taskbalancer.common.Attachment;
+import com.taskbalancer.common.Result;
+import com.taskbalancer.common.Task;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortRandomTaskTest {
+
+	@Test
+	void ordenaConCadaAlgoritmo() {
+		SortRandomTask handler = new SortRandomTask();
+
+		for (SortRandomTask.Algorithm algorithm : SortRandomTask.Algorithm.values()) {
+			Map<String, Object> params = new HashMap<>();
+			params.put("count", 200000);
+			params.put("algorithm", algorithm.name());
+
+			Result r = handler.execute(new Task("s-" + algorithm, handler.getTaskType(), params));
+
+			assertTrue(r.isSuccess(), r.getError());
+			assertTrue(((String) r.getData()).startsWith("Ordenados 200000 números. Primeros 10: ["));
+		}
+	}
+
+	@Test
+	void radixSortCoincideConArraysSort() {
+		for (int bound : new int[]{1, 2, 255, 256, 1000000, Integer.MAX_VALUE}) {
+			int[] data = SortRandomTask.generate(100003, bound, new SplittableRandom(bound));
+			int[] expected = data.clone();
+			Arrays.sort(expected);
+
+			SortRandomTask.radixSort(data, bound);
+
+			assertArrayEquals(expected, data, "bound=" + bound);
+		}
+	}
+
+	@Test
+	void generacionParalelaEsReproducibleConSemilla() {
+		int[] a = SortRandomTask.generate(300000, 1000, new SplittableRandom(99));
+		int[] b = SortRandomTask.generate(300000, 1000, new SplittableRandom(99));
+
+		assertArrayEquals(a, b);
+		assertTrue(Arrays.stream(a).allMatch(v -> v >= 0 && v < 1000));
+	}
+
+	@Test
+	void generaYOrdenaIgualEnSerieConElPoolSaturado() {
+		ComputePool pool = new ComputePool(2);
+		try {
+			int[] paralelo = SortRandomTask.generate(pool, 300000, 1000, new SplittableRandom(5));
+			pool.taskStarted();
+			pool.taskStarted();
+			assertFalse(pool.shouldFork());
+			int[] serie = SortRandomTask.generate(pool, 300000, 1000, new SplittableRandom(5));
+			assertArrayEquals(paralelo, serie);
+
+			int[] expected = serie.clone();
+			Arrays.sort(expected);
+			SortRandomTask.sort(pool, serie, SortRandomTask.Algorithm.PARALLEL, 1000);
+			assertArrayEquals(expected, serie);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void modoExternoInformaDeRunsYRendimiento() {
+		SortRandomTask handler = new SortRandomTask();
+		Map<String, Object> params = new HashMap<>();
+		params.put("count", 1_000_000L);
+		params.put("algorithm", "EXTERNAL");
+		params.put("runSize", 100_000);
+
+		Result r = handler.execute(new Task("s-ext", handler.getTaskType(), params));
+
+		assertTrue(r.isSuccess(), r.getError());
+		String summary = (String) r.getData();
+		assertTrue(summary.startsWith("Ordenados 1000000 números. Primeros 10: ["), summary);
+		assertTrue(summary.contains("Externo: 10 runs, 4.0 MB a "), summary);
+		assertTrue(summary.endsWith(" MB/s"), summary);
+	}
+
+	@Test
+	void errorCuandoFaltaParametro() {
+		SortRandomTask handler = new SortRandomTask();
+		Result r = handler.execute(new Task("s-error", handler.getTaskType(), new HashMap<>()));
+
+		assertFalse(r.isSuccess());
+		assertTrue(r.getError().contains("count"));
+	}
+
+	@Test
+	void ordenaLosDatosAdjuntosDelCliente() {
+		SortRandomTask handler = new SortRandomTask();
+		int[] negativos = new SplittableRandom(7).ints(50000, -1000, 1000).toArray();
+		int[] positivos = SortRandomTask.generate(50000, 1 << 20, new SplittableRandom(8));
+
+		for (int[] data : new int[][]{negativos, positivos}) {
+			int[] expected = data.clone();
+			Arrays.sort(expected);
+			for (String algorithm : new String[]{"SEQUENTIAL", "PARALLEL", "RADIX"}) {
+				Map<String, Object> params = new HashMap<>();
+				params.put("algorithm", algorithm);
+				Task task = new Task("s-att-" + algorithm, handler.getTaskType(), params);
+				task.addAttachment("data", Attachment.ofInts(data));
+
+				Result r = handler.execute(task);
+
+				assertTrue(r.isSuccess(), r.getError());
+				assertArrayEquals(expected, ((Attachment) r.getData()).toIntArray(), algorithm);
+			}
+		}
+	}
+
+	@Test
+	void adjuntoConModoExternoOTipoIncorrecto_error() {
+		SortRandomTask handler = new SortRandomTask();
+		Map<String, Object> params = new HashMap<>();
+		params.put("algorithm", "EXTERNAL");
+		Task externo = new Task("s-att-ext", handler.getTaskType(), params);
+		externo.addAttachment("data", Attachment.ofInts(new int[]{2, 1}));
+		assertFalse(handler.execute(externo).isSuccess());
+
+		Task doubles = new Task("s-att-dbl", handler.getTaskType(), new HashMap<>());
+		doubles.addAttachment("data", Attachment.ofDoubles(new double[]{2, 1}));
+		Result r = handler.execute(doubles);
+		assertFalse(r.isSuccess());
+		assertTrue(r.getError().contains("INT"));
+	}
+}
@@ -0,0 +1,129 @@
+package com.taskbalancer.worker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void sinMuestrasElLimiteNoCambia() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 8);
+		assertEquals(4, limiter.update(0.1));
+	}
+
+	@Test
+	void subeSiElPoolSeLlenaConLatenciaEstableYCpuLibre() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 8);
+		for (int i = 0; i < 10; i++) {
+			limiter.record("SORT_RANDOM", 20 * MS, 2);
+		}
+		assertEquals(3, limiter.update(0.4));
+	}
+
+	@Test
+	void noSubeConLaCpuSaturadaNiSinLlenarElPool() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 8);
+		for (int i = 0; i < 10; i++) {
+			limiter.record("HASH_STRESS", 20 * MS, 2);
+		}
+		assertEquals(2, limiter.update(0.97));
+
+		for (int i = 0; i < 10; i++) {
+			limiter.record("HASH_STRESS", 20 * MS, 1);
+		}
+		assertEquals(2, limiter.update(0.2));
+	}
+
+	@Test
+	void bajaSuavementeSiLasTareasVanMasLentasQueSuMedia() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(8, 1, 16);
+		for (int i = 0; i < 10; i++) {
+			limiter.record("MATRIX_MULT", 10 * MS, 4);
+		}
+		assertEquals(8, limiter.update(0.5));
+
+		// Contención: cada tarea tarda el triple; el objetivo es la mitad y se recorre la mitad del camino
+		for (int i = 0; i < 10; i++) {
+			limiter.record("MATRIX_MULT", 30 * MS, 8);
+		}
+		assertEquals(6, limiter.update(0.99));
+
+		// La media larga ya ha absorbido parte de la subida: sigue bajando, pero menos
+		for (int i = 0; i < 5; i++) {
+			limiter.record("MATRIX_MULT", 30 * MS, 6);
+		}
+		int limit = limiter.update(0.99);
+		assertTrue(limit >= 4 && limit < 6, "límite " + limit);
+	}
+
+	@Test
+	void sinMuestrasSuficientesNoDecideYSigueAcumulando() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 8);
+		for (int i = 0; i < 10; i++) {
+			limiter.record("SORT_RANDOM", 10 * MS, 4);
+		}
+		limiter.update(0.95);
+
+		for (int i = 0; i < ConcurrencyLimiter.MIN_SAMPLES - 1; i++) {
+			limiter.record("SORT_RANDOM", 50 * MS, 4);
+		}
+		assertEquals(4, limiter.update(0.95));
+
+		// Con la siguiente muestra la ventana ya decide
+		limiter.record("SORT_RANDOM", 50 * MS, 4);
+		assertTrue(limiter.update(0.95) < 4);
+	}
+
+	@Test
+	void entradasGrandesOcasionalesDelMismoTipoNoBajanElLimite() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 8);
+		// Mismo tipo con entradas de distinto tamaño: 9 pequeñas (10 ms) por cada grande (200 ms)
+		for (int window = 0; window < 20; window++) {
+			for (int i = 0; i < 10; i++) {
+				limiter.record("SORT_RANDOM", (i == 9 ? 200 : 10) * MS, 4);
+			}
+			assertEquals(4, limiter.update(0.95), "ventana " + window);
+		}
+
+		// Una ventana con más grandes de lo habitual (la media de latencias relativas
+		// supera con creces la tolerancia) no es contención: la mediana sigue por debajo
+		for (int i = 0; i < 10; i++) {
+			limiter.record("SORT_RANDOM", (i >= 7 ? 200 : 10) * MS, 4);
+		}
+		assertEquals(4, limiter.update(0.95));
+	}
+
+	@Test
+	void cadaTipoSeComparaConSuPropiaMedia() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 8);
+		for (int i = 0; i < 10; i++) {
+			limiter.record("PRIME_TEST", MS, 2);
+			limiter.record("PI_DIGITS", 2000 * MS, 2);
+		}
+		// Mezclar tareas de 1 ms y de 2 s no se confunde con contención
+		assertEquals(3, limiter.update(0.3));
+	}
+
+	@Test
+	void respetaLosLimitesMinimoYMaximo() {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 2, 3);
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < ConcurrencyLimiter.MIN_SAMPLES; i++) {
+				limiter.record("SORT_RANDOM", 10 * MS, 3);
+			}
+			limiter.update(0.1);
+		}
+		assertEquals(3, limiter.getLimit());
+
+		for (int i = 0; i < ConcurrencyLimiter.MIN_SAMPLES; i++) {
+			limiter.record("SORT_RANDOM", 100 * MS, 3);
+		}
+		assertEquals(2, limiter.update(0.1));
+
+		assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(1, 0, 4));
+		assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(1, 3, 2));
+	}
+}
@@ -0,0 +1,72 @@
+package com.taskbalancer.worker;
+
+import com.taskbalancer.common.Attachment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataCacheTest {
+
+	private static Attachment ints(int n) {
+		return Attachment.ofInts(new int[n]);
+	}
+
+	@Test
+	void expulsaElMenosUsadoRecientementeAlSuperarElLimite() {
+		DataCache cache = new DataCache(3 * 400, false);
+		List<String> evicted = new ArrayList<>();
+		cache.setEvictionListener(evicted::add);
+
+		cache.put("a", ints(100));
+		cache.put("b", ints(100));
+		cache.put("c", ints(100));
+		cache.get("a"); // 'b' pasa a ser el menos usado
+		cache.put("d", ints(100));
+
+		assertEquals(List.of("b"), evicted);
+		assertEquals(List.of("c", "a", "d"), cache.handles());
+		assertEquals(1200, cache.getUsedBytes());
+	}
+
+	@Test
+	void reemplazarUnHandleNoLoNotificaComoExpulsado() {
+		DataCache cache = new DataCache(1000, false);
+		List<String> evicted = new ArrayList<>();
+		cache.setEvictionListener(evicted::add);
+
+		cache.put("a", ints(100));
+		cache.put("a", ints(50));
+
+		assertTrue(evicted.isEmpty());
+		assertEquals(200, cache.getUsedBytes());
+		assertEquals(50, cache.get("a").length());
+	}
+
+	@Test
+	void datoMayorQueLaCacheNoSeGuarda() {
+		DataCache cache = new DataCache(100, false);
+		List<String> evicted = new ArrayList<>();
+		cache.setEvictionListener(evicted::add);
+		Attachment big = ints(1000);
+
+		assertSame(big, cache.put("big", big));
+		assertFalse(cache.contains("big"));
+		assertEquals(List.of("big"), evicted);
+		assertEquals(0, cache.getUsedBytes());
+	}
+
+	@Test
+	void modoOffHeapCopiaABufferDirecto() {
+		DataCache cache = new DataCache(1 << 20, true);
+		Attachment matrix = Attachment.ofMatrix(new double[]{1, 2, 3, 4}, 2, 2);
+
+		Attachment stored = cache.put("m", matrix);
+
+		assertTrue(stored.asByteBuffer().isDirect());
+		assertArrayEquals(new int[]{2, 2}, stored.getShape());
+		assertArrayEquals(new double[]{1, 2, 3, 4}, cache.get("m").toDoubleArray());
+	}
+}
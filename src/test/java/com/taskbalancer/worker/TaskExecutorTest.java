@@ -1,13 +1,18 @@
 package com.taskbalancer.worker;
 
+import com.taskbalancer.common.Attachment;
 import com.taskbalancer.common.Result;
 import com.taskbalancer.common.Task;
+import com.taskbalancer.tasks.ComputePool;
+import com.taskbalancer.tasks.PrimeTable;
 import com.taskbalancer.tasks.TaskHandler;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -115,6 +120,28 @@ class TaskExecutorTest {
 		assertEquals(982451653L * 982451659L, product);
 	}
 
+	@Test
+	void streamingSoloConHandlersQueLoSoportan() {
+		TaskExecutor executor = new TaskExecutor();
+		List<Object> chunks = new ArrayList<>();
+
+		Map<String, Object> range = new HashMap<>();
+		range.put("start", 0L);
+		range.put("end", 100L);
+		Result streamed = executor.executeTask(new Task("t-range", "PRIME_RANGE", range), chunks::add);
+		assertTrue(streamed.isSuccess());
+		assertEquals(25L, streamed.getData());
+		assertEquals(1, chunks.size());
+		assertEquals(25, ((List<?>) chunks.get(0)).size());
+
+		// Un handler sin streaming ignora el destino y devuelve el resultado completo
+		Map<String, Object> prime = new HashMap<>();
+		prime.put("number", 17L);
+		Result plain = executor.executeTask(new Task("t-prime", "PRIME_TEST", prime), chunks::add);
+		assertEquals(true, plain.getData());
+		assertEquals(1, chunks.size());
+	}
+
 	@Test
 	void retornaErrorSiNoExisteHandlerParaTipo() {
 		TaskExecutor executor = new TaskExecutor();
@@ -149,6 +176,65 @@ class TaskExecutorTest {
 		assertTrue(ex.getMessage().contains("boom"));
 		verify(throwingHandler, times(1)).execute(task);
 	}
+
+	@Test
+	void datosReferenciadosSeCacheanYSeReutilizanSinReenviarlos() {
+		TaskExecutor executor = new TaskExecutor(new PrimeTable(1 << 10), new DataCache(1 << 20, false));
+
+		Map<String, Object> params = new HashMap<>();
+		params.put("algorithm", "SEQUENTIAL");
+		Task subida = new Task("t-up", "SORT_RANDOM", params);
+		subida.addAttachment("data", Attachment.ofInts(new int[]{3, 1, 2}));
+		subida.addDataRef("data", "dataset-1");
+		assertTrue(executor.executeTask(subida).isSuccess());
+		assertTrue(executor.getDataCache().contains("dataset-1"));
+
+		Task reuso = new Task("t-reuse", "SORT_RANDOM", params);
+		reuso.addDataRef("data", "dataset-1");
+		Result result = executor.executeTask(reuso);
+
+		assertTrue(result.isSuccess(), result.getError());
+		assertArrayEquals(new int[]{1, 2, 3}, ((Attachment) result.getData()).toIntArray());
+		assertTrue(reuso.getDataRefs().isEmpty());
+	}
+
+	@Test
+	void handleQueNoEstaEnCache_devuelveError() {
+		TaskExecutor executor = new TaskExecutor(new PrimeTable(1 << 10), new DataCache(1 << 20, false));
+		Task task = new Task("t-miss", "SORT_RANDOM", new HashMap<>());
+		task.addDataRef("data", "desconocido");
+
+		Result result = executor.executeTask(task);
+
+		assertFalse(result.isSuccess());
+		assertTrue(result.getError().contains("Dato no disponible en caché: desconocido"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void cadaTareaCuentaEnElPoolDeCalculoMientrasSeEjecuta() throws Exception {
+		ComputePool pool = new ComputePool(2);
+		TaskExecutor executor = new TaskExecutor(new PrimeTable(1 << 10), new DataCache(1 << 20, false), pool);
+
+		TaskHandler probe = Mockito.mock(TaskHandler.class);
+		when(probe.execute(any())).thenAnswer(inv -> {
+			Result r = new Result();
+			r.setSuccess(true);
+			r.setData(pool.getRunningTasks());
+			return r;
+		});
+		when(probe.getTaskType()).thenReturn("PROBE");
+		when(probe.execute(argThat(t -> "t-boom".equals(t.getTaskId())))).thenThrow(new RuntimeException("boom"));
+
+		Field f = TaskExecutor.class.getDeclaredField("handlers");
+		f.setAccessible(true);
+		((Map<String, TaskHandler>) f.get(executor)).put("PROBE", probe);
+
+		assertEquals(1, executor.executeTask(new Task("t-probe", "PROBE", new HashMap<>())).getData());
+		assertThrows(RuntimeException.class, () -> executor.executeTask(new Task("t-boom", "PROBE", new HashMap<>())));
+		assertEquals(0, pool.getRunningTasks());
+		executor.shutdown();
+	}
 }
 
 
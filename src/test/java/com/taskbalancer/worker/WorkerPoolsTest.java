@@ -0,0 +1,100 @@
+package com.taskbalancer.worker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerPoolsTest {
+
+	@Test
+	void sinDefinicionSoloHayPoolPorDefecto() {
+		WorkerPools pools = new WorkerPools(4, 1, null);
+
+		assertEquals(Map.of("default", 5), pools.getSlots());
+		assertEquals("default", pools.poolFor("HASH_STRESS"));
+		assertEquals(4, pools.getThreads());
+		assertEquals(5, pools.getTotalSlots());
+		pools.shutdown();
+	}
+
+	@Test
+	void asignaTiposAPoolsYCuentaHuecosPorSeparado() {
+		WorkerPools pools = new WorkerPools(2, 1, "heavy:1:HASH_STRESS, matrix_mult; light:3:PRIME_TEST");
+
+		assertEquals("heavy", pools.poolFor("MATRIX_MULT"));
+		assertEquals("light", pools.poolFor("PRIME_TEST"));
+		assertEquals("default", pools.poolFor("PI_DIGITS"));
+		assertEquals(Map.of("default", 3, "heavy", 2, "light", 4), pools.getSlots());
+		assertEquals(6, pools.getThreads());
+		assertEquals(9, pools.getTotalSlots());
+
+		pools.taskStarted("HASH_STRESS");
+		pools.taskStarted("PRIME_TEST");
+		pools.taskStarted("PRIME_TEST");
+		pools.taskFinished("PRIME_TEST");
+		assertEquals(Map.of("default", 0, "heavy", 1, "light", 1), pools.getTaskCounts());
+		pools.shutdown();
+	}
+
+	@Test
+	void unaTareaPesadaNoBloqueaLasBaratas() throws Exception {
+		WorkerPools pools = new WorkerPools(1, 0, "heavy:1:HASH_STRESS");
+		CountDownLatch release = new CountDownLatch(1);
+
+		pools.executorFor("HASH_STRESS").submit(() -> {
+			release.await();
+			return null;
+		});
+		Future<String> cheap = pools.executorFor("PRIME_TEST").submit(() -> "ok");
+
+		assertEquals("ok", cheap.get(5, TimeUnit.SECONDS));
+		release.countDown();
+		pools.shutdown();
+		pools.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void definicionInvalidaSeRechaza() {
+		assertThrows(IllegalArgumentException.class, () -> new WorkerPools(1, 0, "heavy:HASH_STRESS"));
+		assertThrows(IllegalArgumentException.class, () -> new WorkerPools(1, 0, "heavy:0:HASH_STRESS"));
+		assertThrows(IllegalArgumentException.class, () -> new WorkerPools(1, 0, "a:1:X;a:1:Y"));
+		assertThrows(IllegalArgumentException.class, () -> new WorkerPools(1, 0, "io:4:SORT_RANDOM:rapido"));
+	}
+
+	@Test
+	void poolVirtualEjecutaEnHilosVirtualesYLosDemasNo() throws Exception {
+		WorkerPools pools = new WorkerPools(1, 0, "io:8:SORT_RANDOM:virtual");
+
+		assertTrue(pools.isVirtual("io"));
+		assertFalse(pools.isVirtual("default"));
+		assertEquals(Map.of("default", 1, "io", 8), pools.getSlots());
+		assertTrue(pools.executorFor("SORT_RANDOM").submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+		assertFalse(pools.executorFor("PRIME_TEST").submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+
+		pools.shutdown();
+		pools.awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	void cambiarHilosEnMarchaActualizaLosHuecos() {
+		WorkerPools pools = new WorkerPools(2, 1, "heavy:1:HASH_STRESS");
+
+		pools.setThreads("default", 4);
+		pools.setThreads("heavy", 3);
+		assertEquals(Map.of("default", 5, "heavy", 4), pools.getSlots());
+		assertEquals(4, pools.getThreads("default"));
+		assertEquals(7, pools.getThreads());
+		assertEquals(9, pools.getTotalSlots());
+
+		pools.setThreads("heavy", 1);
+		assertEquals(1, pools.getThreads("heavy"));
+		assertEquals(Map.of("default", 5, "heavy", 2), pools.getSlots());
+		assertThrows(IllegalArgumentException.class, () -> pools.setThreads("heavy", 0));
+		pools.shutdown();
+	}
+}